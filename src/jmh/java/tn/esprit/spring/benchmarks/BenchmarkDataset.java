@@ -0,0 +1,90 @@
+package tn.esprit.spring.benchmarks;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.spring.services.InstructorWeekIndex;
+import tn.esprit.spring.services.RevenueAggregate;
+import tn.esprit.spring.services.SeatInventory;
+import tn.esprit.spring.services.SkierSearchIndex;
+import tn.esprit.spring.services.SubscriptionExpiryWheel;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Seeds the embedded database with plain JDBC batches, then rebuilds the in-memory indexes */
+public final class BenchmarkDataset {
+
+    private static final int BATCH = 5000;
+
+    private static final String[] TYPE_COURSES = {"COLLECTIVE_CHILDREN", "COLLECTIVE_ADULT", "INDIVIDUAL"};
+    private static final String[] SUPPORTS = {"SKI", "SNOWBOARD"};
+
+    private BenchmarkDataset() {
+    }
+
+    public static int courseCount(int skiers) {
+        return Math.max(10, skiers / 100);
+    }
+
+    public static int instructorCount(int skiers) {
+        return Math.max(2, courseCount(skiers) / 5);
+    }
+
+    public static void seed(ApplicationContext context, int skiers) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        int courses = courseCount(skiers);
+        int instructors = instructorCount(skiers);
+        LocalDate today = LocalDate.now();
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int c = 1; c <= courses; c++) {
+            rows.add(new Object[]{c, c % 4, TYPE_COURSES[c % 3], SUPPORTS[c % 2], 100f + c % 50, c % 4, null});
+        }
+        jdbc.batchUpdate("insert into course (num_course, level, type_course, support, price, time_slot, capacity) " +
+                "values (?, ?, ?, ?, ?, ?, ?)", rows);
+
+        rows.clear();
+        List<Object[]> assignments = new ArrayList<>();
+        for (int i = 1; i <= instructors; i++) {
+            rows.add(new Object[]{i, "First" + i, "Last" + i, Date.valueOf(today.minusYears(i % 20))});
+        }
+        for (int c = 1; c <= courses; c++) {
+            assignments.add(new Object[]{(c - 1) % instructors + 1, c});
+        }
+        jdbc.batchUpdate("insert into instructor (num_instructor, first_name, last_name, date_of_hire) values (?, ?, ?, ?)", rows);
+        jdbc.batchUpdate("insert into instructor_courses (instructor_num_instructor, courses_num_course) values (?, ?)", assignments);
+
+        List<Object[]> subscriptions = new ArrayList<>(BATCH);
+        List<Object[]> skierRows = new ArrayList<>(BATCH);
+        List<Object[]> registrations = new ArrayList<>(BATCH);
+        for (int s = 1; s <= skiers; s++) {
+            LocalDate start = today.minusDays(s % 400);
+            int type = s % 3;
+            LocalDate end = type == 0 ? start.plusYears(1) : type == 1 ? start.plusMonths(1) : start.plusMonths(6);
+            subscriptions.add(new Object[]{s, Date.valueOf(start), Date.valueOf(end), 50f + s % 500, type});
+            skierRows.add(new Object[]{s, "First" + s, "Last" + s, Date.valueOf(today.minusYears(8 + s % 50)), "City" + s % 100, s});
+            registrations.add(new Object[]{s, 1 + s % 52, s, 1 + s % courses});
+            if (subscriptions.size() == BATCH || s == skiers) {
+                jdbc.batchUpdate("insert into subscription (num_sub, start_date, end_date, price, type_sub) values (?, ?, ?, ?, ?)", subscriptions);
+                jdbc.batchUpdate("insert into skier (num_skier, first_name, last_name, date_of_birth, city, subscription_num_sub) " +
+                        "values (?, ?, ?, ?, ?, ?)", skierRows);
+                jdbc.batchUpdate("insert into registration (num_registration, num_week, skier_num_skier, course_num_course) " +
+                        "values (?, ?, ?, ?)", registrations);
+                subscriptions.clear();
+                skierRows.clear();
+                registrations.clear();
+            }
+        }
+        for (String sequence : new String[]{"skier_seq", "subscription_seq", "registration_seq"}) {
+            jdbc.execute("alter sequence " + sequence + " restart with " + (skiers + 100));
+        }
+
+        context.getBean(SeatInventory.class).rebuild();
+        context.getBean(InstructorWeekIndex.class).rebuild();
+        context.getBean(SkierSearchIndex.class).rebuild();
+        context.getBean(SubscriptionExpiryWheel.class).load();
+        context.getBean(RevenueAggregate.class).reconcile();
+    }
+}
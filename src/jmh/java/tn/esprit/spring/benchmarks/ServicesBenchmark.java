@@ -0,0 +1,113 @@
+package tn.esprit.spring.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tn.esprit.spring.GestionStationSkiApplication;
+import tn.esprit.spring.entities.*;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+import tn.esprit.spring.services.IRegistrationServices;
+import tn.esprit.spring.services.ISkierServices;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* Services and repository queries against the embedded H2 database (profile h2).
+ * Run with : ./mvnw -Pbenchmark -DskipTests verify, results go to target/jmh-result.json */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServicesBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private ConfigurableApplicationContext context;
+    private ISkierServices skierServices;
+    private IRegistrationServices registrationServices;
+    private IRegistrationRepository registrationRepository;
+    private ISubscriptionRepository subscriptionRepository;
+    private int individualCourses;
+    private int instructors;
+    private final AtomicInteger bookings = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(GestionStationSkiApplication.class)
+                .profiles("h2")
+                .properties("spring.main.web-application-type=none", "logging.level.root=warn")
+                .run();
+        BenchmarkDataset.seed(context, rows);
+        skierServices = context.getBean(ISkierServices.class);
+        registrationServices = context.getBean(IRegistrationServices.class);
+        registrationRepository = context.getBean(IRegistrationRepository.class);
+        subscriptionRepository = context.getBean(ISubscriptionRepository.class);
+        individualCourses = (BenchmarkDataset.courseCount(rows) - 2) / 3 + 1;
+        instructors = BenchmarkDataset.instructorCount(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object addSkier() {
+        Subscription subscription = new Subscription();
+        subscription.setTypeSub(TypeSubscription.MONTHLY);
+        subscription.setStartDate(LocalDate.now());
+        subscription.setPrice(80f);
+        Skier skier = new Skier();
+        skier.setFirstName("Bench");
+        skier.setLastName("Skier");
+        skier.setDateOfBirth(LocalDate.now().minusYears(20));
+        skier.setCity("Tunis");
+        skier.setSubscription(subscription);
+        return skierServices.addSkier(skier);
+    }
+
+    /* courses 2, 5, 8... are individual ones, without capacity, so every call goes down to the insert */
+    @Benchmark
+    public Registration addRegistrationAndAssignToSkierAndCourse() {
+        int n = bookings.incrementAndGet();
+        long numSkier = 1 + n % rows;
+        long numCourse = 2 + 3L * ((n / rows) % individualCourses);
+        Registration registration = new Registration();
+        registration.setNumWeek(1 + (n / rows / individualCourses) % 52);
+        return registrationServices.addRegistrationAndAssignToSkierAndCourse(registration, numSkier, numCourse);
+    }
+
+    @Benchmark
+    public Object searchSkiers() {
+        return skierServices.searchSkiers("first" + (1 + ThreadLocalRandom.current().nextInt(rows)) + " city", 20);
+    }
+
+    @Benchmark
+    public Float recurringRevenueByTypeSubEquals() {
+        return subscriptionRepository.recurringRevenueByTypeSubEquals(TypeSubscription.ANNUAL);
+    }
+
+    @Benchmark
+    public List<Object[]> activeRevenueByTypeSub() {
+        return subscriptionRepository.activeRevenueByTypeSub(LocalDate.now());
+    }
+
+    @Benchmark
+    public List<Integer> numWeeksCourseOfInstructorBySupportQuery() {
+        long numInstructor = 1 + ThreadLocalRandom.current().nextInt(instructors);
+        return registrationRepository.numWeeksCourseOfInstructorBySupport(numInstructor, Support.SKI);
+    }
+
+    @Benchmark
+    public List<Integer> numWeeksCourseOfInstructorBySupportService() {
+        long numInstructor = 1 + ThreadLocalRandom.current().nextInt(instructors);
+        return registrationServices.numWeeksCourseOfInstructorBySupport(numInstructor, Support.SKI);
+    }
+}
@@ -0,0 +1,80 @@
+package tn.esprit.spring.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import tn.esprit.spring.dto.RegistrationDTO;
+import tn.esprit.spring.dto.SkierDTO;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.wire.WireCodecs;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* JSON against the binary wire format on a list of skiers, as returned by /skier/all.
+ * The payload sizes are printed at setup. Run with : ./mvnw -Pbenchmark -DskipTests verify */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"1", "100", "1000"})
+    int skiers;
+
+    private ObjectMapper objectMapper;
+    private JavaType listType;
+    private List<SkierDTO> payload;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        /* configured as the one of the application */
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        listType = objectMapper.getTypeFactory().constructCollectionType(List.class, SkierDTO.class);
+        payload = new ArrayList<>(skiers);
+        for (int i = 1; i <= skiers; i++) {
+            List<RegistrationDTO> registrations = new ArrayList<>();
+            for (int week = 1; week <= 3; week++) {
+                registrations.add(new RegistrationDTO((long) i * 3 + week, week));
+            }
+            Subscription subscription = new Subscription((long) i, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31),
+                    600f, TypeSubscription.ANNUAL);
+            payload.add(new SkierDTO((long) i, "first" + i, "last" + i, LocalDate.of(1990, 1, 1).plusDays(i),
+                    "city" + i % 50, subscription, registrations));
+        }
+        json = objectMapper.writeValueAsBytes(payload);
+        binary = WireCodecs.encode(payload).toByteArray();
+        System.out.println("\n" + skiers + " skiers : json " + json.length + " bytes, binary " + binary.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws IOException {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public List<SkierDTO> jsonDecode() throws IOException {
+        return objectMapper.readValue(json, listType);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return WireCodecs.encode(payload).toByteArray();
+    }
+
+    @Benchmark
+    public List<SkierDTO> binaryDecode() {
+        return WireCodecs.decode(binary, WireCodecs.SKIER_DTO);
+    }
+}
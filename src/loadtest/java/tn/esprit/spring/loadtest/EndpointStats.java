@@ -0,0 +1,18 @@
+package tn.esprit.spring.loadtest;
+
+import tn.esprit.spring.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EndpointStats {
+
+    final LatencyHistogram latencyMicros = new LatencyHistogram();
+    final AtomicLong errors = new AtomicLong();
+
+    void record(long latencyNanos, int status) {
+        latencyMicros.record(latencyNanos / 1000);
+        if (status < 200 || status >= 400) {
+            errors.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package tn.esprit.spring.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/* Open model : requests are sent on a fixed schedule whatever the response times, and the latency
+ * is measured from the scheduled time so that a stalled server is not hidden (coordinated omission). */
+public class LoadGenerator {
+
+    private final String baseUrl;
+    private final ExecutorService senders;
+    private final Map<String, EndpointStats> stats = new ConcurrentSkipListMap<>();
+
+    public LoadGenerator(String baseUrl, int maxConcurrency) {
+        this.baseUrl = baseUrl;
+        this.senders = Executors.newFixedThreadPool(maxConcurrency);
+    }
+
+    public Map<String, EndpointStats> getStats() {
+        return stats;
+    }
+
+    public void runAtFixedRate(Scenario scenario, double requestsPerSecond, long durationSeconds) throws InterruptedException {
+        long period = (long) (1_000_000_000L / requestsPerSecond);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (long n = 0; ; n++) {
+            long scheduled = start + n * period;
+            if (scheduled >= end) {
+                break;
+            }
+            sleepUntil(scheduled);
+            LoadRequest request = scenario.next(n);
+            senders.execute(() -> send(request, scheduled));
+        }
+        awaitCompletion();
+    }
+
+    public void replay(List<LoadRequest> requests, double speed) throws InterruptedException {
+        long start = System.nanoTime();
+        for (LoadRequest request : requests) {
+            long scheduled = start + (long) (TimeUnit.MILLISECONDS.toNanos(request.getOffsetMillis()) / speed);
+            sleepUntil(scheduled);
+            senders.execute(() -> send(request, scheduled));
+        }
+        awaitCompletion();
+    }
+
+    private void awaitCompletion() throws InterruptedException {
+        senders.shutdown();
+        senders.awaitTermination(5, TimeUnit.MINUTES);
+    }
+
+    private void send(LoadRequest request, long scheduled) {
+        int status;
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + request.getPath()).openConnection();
+            connection.setRequestMethod(request.getMethod());
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(30000);
+            if (request.getBody() != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", request.getContentType() == null ? "application/json" : request.getContentType());
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(request.getBody());
+                }
+            }
+            status = connection.getResponseCode();
+            try (InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+                drain(in);
+            }
+        } catch (IOException e) {
+            status = -1;
+        }
+        stats.computeIfAbsent(request.endpoint(), e -> new EndpointStats()).record(System.nanoTime() - scheduled, status);
+    }
+
+    /* reading the body to the end lets the connection be reused */
+    private static void drain(InputStream in) throws IOException {
+        if (in == null) {
+            return;
+        }
+        byte[] buffer = new byte[8192];
+        while (in.read(buffer) >= 0) {
+            // discard
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package tn.esprit.spring.loadtest;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.nio.charset.StandardCharsets;
+
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LoadRequest {
+
+    /* offset from the start of the run, only used by replays */
+    long offsetMillis;
+    String method;
+    String path;
+    String contentType;
+    byte[] body;
+
+    public static LoadRequest get(String path) {
+        return new LoadRequest(0, "GET", path, null, null);
+    }
+
+    public static LoadRequest json(String method, String path, String body) {
+        return new LoadRequest(0, method, path, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /* numeric path segments are grouped, /skier/get/12 and /skier/get/13 are the same endpoint */
+    public String endpoint() {
+        int query = path.indexOf('?');
+        String bare = query < 0 ? path : path.substring(0, query);
+        return method + " " + bare.replaceAll("/\\d+", "/{id}");
+    }
+}
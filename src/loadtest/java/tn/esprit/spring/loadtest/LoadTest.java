@@ -0,0 +1,133 @@
+package tn.esprit.spring.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import tn.esprit.spring.GestionStationSkiApplication;
+import tn.esprit.spring.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.*;
+
+/* Load test harness.
+ *   --scenario=opening|browsing|replay  --rate=200 (requests/s)  --duration=60 (s)
+ *   --capture=capture.ndjson --speed=2 (replay only)  --concurrency=200
+ *   --target=http://host:8089/api (default : the application started here on the h2 profile,
+ *     seeded with --skiers=10000 and --courses=50)
+ * Prints p50/p99/p999 and throughput per endpoint and writes target/loadtest-report.json */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String scenarioName = options.getOrDefault("scenario", "opening");
+        int skiers = Integer.parseInt(options.getOrDefault("skiers", "10000"));
+        int courses = Integer.parseInt(options.getOrDefault("courses", "50"));
+
+        ConfigurableApplicationContext context = null;
+        String target = options.get("target");
+        if (target == null) {
+            context = new SpringApplicationBuilder(GestionStationSkiApplication.class)
+                    .profiles("h2")
+                    .properties("server.port=0", "logging.level.root=warn")
+                    .run();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            target = "http://localhost:" + port + "/api";
+            if (!"replay".equals(scenarioName)) {
+                seed(target, skiers, courses);
+            }
+        }
+
+        LoadGenerator generator = new LoadGenerator(target, Integer.parseInt(options.getOrDefault("concurrency", "200")));
+        long start = System.nanoTime();
+        if ("replay".equals(scenarioName)) {
+            generator.replay(Scenario.readCapture(options.getOrDefault("capture", "capture.ndjson")),
+                    Double.parseDouble(options.getOrDefault("speed", "1")));
+        } else {
+            Scenario scenario = "browsing".equals(scenarioName) ? Scenario.browsing(skiers, courses) : Scenario.bookingStorm(skiers, courses);
+            generator.runAtFixedRate(scenario, Double.parseDouble(options.getOrDefault("rate", "200")),
+                    Long.parseLong(options.getOrDefault("duration", "60")));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        report(scenarioName, generator.getStats(), seconds);
+
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private static void report(String scenario, Map<String, EndpointStats> stats, double seconds) throws IOException {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        System.out.printf("%n%-60s %9s %7s %9s %9s %9s %9s%n", "endpoint (" + scenario + ")", "requests", "errors",
+                "req/s", "p50 ms", "p99 ms", "p999 ms");
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            LatencyHistogram latency = entry.getValue().latencyMicros;
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", entry.getKey());
+            row.put("requests", latency.getCount());
+            row.put("errors", entry.getValue().errors.get());
+            row.put("throughput", latency.getCount() / seconds);
+            row.put("p50Ms", latency.valueAtPercentile(50) / 1000.0);
+            row.put("p99Ms", latency.valueAtPercentile(99) / 1000.0);
+            row.put("p999Ms", latency.valueAtPercentile(99.9) / 1000.0);
+            row.put("maxMs", latency.getMax() / 1000.0);
+            endpoints.add(row);
+            System.out.printf("%-60s %9d %7d %9.1f %9.2f %9.2f %9.2f%n", entry.getKey(), latency.getCount(),
+                    entry.getValue().errors.get(), latency.getCount() / seconds, latency.valueAtPercentile(50) / 1000.0,
+                    latency.valueAtPercentile(99) / 1000.0, latency.valueAtPercentile(99.9) / 1000.0);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", scenario);
+        report.put("durationSeconds", seconds);
+        report.put("endpoints", endpoints);
+        Files.createDirectories(Paths.get("target"));
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(Paths.get("target", "loadtest-report.json").toFile(), report);
+    }
+
+    /* courses alternate collective children / adult / individual, skiers are imported in one CSV */
+    private static void seed(String target, int skiers, int courses) throws IOException {
+        String[] types = {"COLLECTIVE_CHILDREN", "COLLECTIVE_ADULT", "INDIVIDUAL"};
+        for (int c = 1; c <= courses; c++) {
+            post(target + "/course/add", "application/json", "{\"level\":" + (c % 4) + ",\"typeCourse\":\"" + types[c % 3]
+                    + "\",\"support\":\"" + (c % 2 == 0 ? "SKI" : "SNOWBOARD") + "\",\"price\":100,\"timeSlot\":" + (c % 4) + "}");
+        }
+        StringBuilder csv = new StringBuilder("firstName,lastName,dateOfBirth,city,typeSub,startDate,price\n");
+        LocalDate today = LocalDate.now();
+        for (int s = 1; s <= skiers; s++) {
+            csv.append("First").append(s).append(",Last").append(s).append(',').append(today.minusYears(6 + s % 40))
+                    .append(",City").append(s % 20).append(",MONTHLY,").append(today).append(",80\n");
+        }
+        post(target + "/skier/import", "text/csv", csv.toString());
+    }
+
+    private static void post(String url, String contentType, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", contentType);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        if (connection.getResponseCode() >= 400) {
+            throw new IOException("Seeding failed on " + url + " : HTTP " + connection.getResponseCode());
+        }
+        connection.getInputStream().close();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
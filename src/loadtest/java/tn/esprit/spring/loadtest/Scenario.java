@@ -0,0 +1,87 @@
+package tn.esprit.spring.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/* Produces the n-th request of a run */
+public interface Scenario {
+
+    LoadRequest next(long n);
+
+    /* opening day : mostly bookings on collective courses, some catalog reads */
+    static Scenario bookingStorm(int skiers, int courses) {
+        return n -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextInt(100) < 80) {
+                return LoadRequest.json("PUT", "/registration/addAndAssignToSkierAndCourse/"
+                        + (1 + random.nextInt(skiers)) + "/" + (1 + random.nextInt(courses)),
+                        "{\"numWeek\":" + (1 + random.nextInt(20)) + "}");
+            }
+            return random.nextBoolean() ? LoadRequest.get("/course/all") : LoadRequest.get("/course/get/" + (1 + random.nextInt(courses)));
+        };
+    }
+
+    /* regular day : catalog polling and skier lookups */
+    static Scenario browsing(int skiers, int courses) {
+        return n -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            switch (random.nextInt(6)) {
+                case 0:
+                    return LoadRequest.get("/piste/all");
+                case 1:
+                    return LoadRequest.get("/course/all");
+                case 2:
+                    return LoadRequest.get("/instructor/all");
+                case 3:
+                    return LoadRequest.get("/skier/page?size=50");
+                case 4:
+                    return LoadRequest.get("/subscription/revenue");
+                default:
+                    return LoadRequest.get("/skier/get/" + (1 + random.nextInt(skiers)));
+            }
+        };
+    }
+
+    /* requests recorded by RequestCaptureFilter, in the order they were received */
+    static List<LoadRequest> readCapture(String file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<LoadRequest> requests = new ArrayList<>();
+        long start = -1;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                JsonNode record = mapper.readTree(line);
+                long time = record.get("t").asLong();
+                if (start < 0) {
+                    start = time;
+                }
+                /* binary bodies are captured in base64 */
+                String body = text(record, "body");
+                byte[] bytes = body == null ? null : record.path("base64").asBoolean()
+                        ? Base64.getDecoder().decode(body) : body.getBytes(StandardCharsets.UTF_8);
+                requests.add(new LoadRequest(time - start, record.get("method").asText(), record.get("path").asText(),
+                        text(record, "contentType"), bytes));
+            }
+        }
+        requests.sort((a, b) -> Long.compare(a.getOffsetMillis(), b.getOffsetMillis()));
+        return requests;
+    }
+
+    static String text(JsonNode record, String field) {
+        JsonNode value = record.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
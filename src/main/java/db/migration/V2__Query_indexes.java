@@ -0,0 +1,46 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/* Indexes behind the repository queries, declared with @Index on the entities. Instances running
+ * ddl-auto=update may have created them already, so each one is only created when it is missing. */
+public class V2__Query_indexes extends BaseJavaMigration {
+
+    private static final String[][] INDEXES = {
+            {"registration", "idx_registration_course_week", "course_num_course, num_week"},
+            {"registration", "idx_registration_skier_week_course", "skier_num_skier, num_week, course_num_course"},
+            {"subscription", "idx_subscription_end_date", "end_date"},
+            {"subscription", "idx_subscription_type_start", "type_sub, start_date"},
+            {"subscription", "idx_subscription_start_date", "start_date"},
+            {"skier", "idx_skier_subscription", "subscription_num_sub"}};
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        for (String[] index : INDEXES) {
+            if (!exists(connection, index[0], index[1])) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("create index " + index[1] + " on " + index[0] + " (" + index[2] + ")");
+                }
+            }
+        }
+    }
+
+    private boolean exists(Connection connection, String table, String index) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select count(*) from information_schema.statistics " +
+                "where table_schema = database() and table_name = ? and index_name = ?")) {
+            statement.setString(1, table);
+            statement.setString(2, index);
+            try (ResultSet count = statement.executeQuery()) {
+                return count.next() && count.getInt(1) > 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/* Count of the subscriptions the renewal job could not renew. Instances running ddl-auto=update
+ * may have added the column already. */
+public class V5__Renewal_skipped extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (PreparedStatement statement = connection.prepareStatement("select count(*) from information_schema.columns " +
+                "where table_schema = database() and table_name = 'renewal_partition' and column_name = 'skipped'");
+             ResultSet count = statement.executeQuery()) {
+            if (count.next() && count.getInt(1) > 0) {
+                return;
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table renewal_partition add column skipped bigint not null default 0");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import tn.esprit.spring.configs.SequenceCatchUp;
+
+import java.sql.Statement;
+
+/* Databases baselined at V1 were created with IDENTITY columns and have no *_seq tables, the insert of
+ * V1 never ran on them. The tables are created when missing and moved past the largest id. */
+public class V7__Sequence_catch_up extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        for (String[] sequence : SequenceCatchUp.SEQUENCES) {
+            try (Statement statement = context.getConnection().createStatement()) {
+                statement.execute("create table if not exists " + sequence[0] + " (next_val bigint) engine=InnoDB");
+            }
+            SequenceCatchUp.catchUp(context.getConnection(), sequence[0], sequence[1], sequence[2]);
+        }
+    }
+}
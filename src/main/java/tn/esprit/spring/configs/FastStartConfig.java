@@ -0,0 +1,69 @@
+package tn.esprit.spring.configs;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/* Instances started on peak days : documentation beans created on first use and scheduled jobs held
+ * until readiness. The schema and warmup settings are in application-faststart.properties. */
+@Configuration
+@Profile("faststart")
+public class FastStartConfig {
+
+    /* nothing on the request path depends on them */
+    private static final String[] LAZY_PREFIXES = { "org.springdoc.", OpenAPIConfig.class.getName() };
+
+    @Bean
+    public static BeanFactoryPostProcessor lazyDocumentationBeans() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                String type = declaringClassOf(definition);
+                for (String prefix : LAZY_PREFIXES) {
+                    if (type != null && type.startsWith(prefix)) {
+                        definition.setLazyInit(true);
+                    }
+                }
+            }
+        };
+    }
+
+    @Bean
+    public ReadinessGatedTaskScheduler taskScheduler(@Value("${spring.task.scheduling.pool.size:1}") int poolSize) {
+        ReadinessGatedTaskScheduler scheduler = new ReadinessGatedTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
+
+    /* the scheduler above is an Executor, so Boot backs off its own executor : declared again for the
+     * asynchronous MVC requests and @Async, with the spring.task.execution settings */
+    @Lazy
+    @Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /* @Bean methods have no bean class, their configuration class is used instead */
+    private static String declaringClassOf(BeanDefinition definition) {
+        if (definition.getBeanClassName() != null) {
+            return definition.getBeanClassName();
+        }
+        if (definition instanceof AnnotatedBeanDefinition) {
+            MethodMetadata factoryMethod = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata();
+            return factoryMethod == null ? null : factoryMethod.getDeclaringClassName();
+        }
+        return null;
+    }
+}
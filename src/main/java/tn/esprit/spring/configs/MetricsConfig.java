@@ -0,0 +1,64 @@
+package tn.esprit.spring.configs;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tn.esprit.spring.metrics.MetricsRegistry;
+import tn.esprit.spring.metrics.QueryCounter;
+import tn.esprit.spring.metrics.TimingInterceptor;
+
+import java.lang.reflect.Method;
+
+/* Latency histograms around every endpoint, every service method and every scheduled job,
+ * and a count of the SQL statements of every request */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+    }
+
+    @Bean
+    public Advisor endpointTimingAdvisor(MetricsRegistry registry) {
+        return new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forClassAnnotation(RestController.class),
+                new TimingInterceptor(registry, "http_server_requests_seconds", MetricsConfig::endpoint));
+    }
+
+    @Bean
+    public Advisor serviceTimingAdvisor(MetricsRegistry registry) {
+        return new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forClassAnnotation(Service.class),
+                new TimingInterceptor(registry, "service_method_seconds", method ->
+                        MetricsRegistry.label("service", method.getDeclaringClass().getSimpleName()) + ","
+                                + MetricsRegistry.label("method", method.getName())));
+    }
+
+    @Bean
+    public Advisor scheduledTimingAdvisor(MetricsRegistry registry) {
+        return new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(Scheduled.class),
+                new TimingInterceptor(registry, "scheduled_job_seconds", method ->
+                        MetricsRegistry.label("job", method.getDeclaringClass().getSimpleName() + "." + method.getName())));
+    }
+
+    /* "GET /skier/get/{id-skier}", read from the mapping annotations */
+    static String endpoint(Method method) {
+        RequestMapping type = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), RequestMapping.class);
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+        if (mapping == null) {
+            return MetricsRegistry.label("endpoint", method.getDeclaringClass().getSimpleName() + "." + method.getName());
+        }
+        String prefix = type != null && type.path().length > 0 ? type.path()[0] : "";
+        String path = mapping.path().length > 0 ? mapping.path()[0] : "";
+        String verb = mapping.method().length > 0 ? mapping.method()[0].name() : "ANY";
+        return MetricsRegistry.label("endpoint", verb + " " + prefix + path);
+    }
+}
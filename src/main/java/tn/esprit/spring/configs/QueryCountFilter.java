@@ -0,0 +1,47 @@
+package tn.esprit.spring.configs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tn.esprit.spring.metrics.MetricsRegistry;
+import tn.esprit.spring.metrics.QueryCounter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Counts the queries of every request and logs the requests going over the query budget */
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final LongAdder statements;
+    private final LongAdder overBudget;
+    private final int budget;
+
+    public QueryCountFilter(MetricsRegistry metricsRegistry, @Value("${query.request-budget:20}") int budget) {
+        this.statements = metricsRegistry.counter("db_statements_total", "");
+        this.overBudget = metricsRegistry.counter("http_requests_over_query_budget_total", "");
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long before = QueryCounter.count();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long count = QueryCounter.count() - before;
+            statements.add(count);
+            if (count > budget) {
+                overBudget.increment();
+                log.warn(request.getMethod() + " " + request.getRequestURI() + " ran " + count + " queries (budget " + budget + ")");
+            }
+        }
+    }
+}
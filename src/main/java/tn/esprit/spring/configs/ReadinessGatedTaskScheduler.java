@@ -0,0 +1,60 @@
+package tn.esprit.spring.configs;
+
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+
+/* Scheduler of the @Scheduled jobs whose runs are skipped until the instance accepts traffic,
+ * so that the jobs do not compete with the startup and the warmup */
+public class ReadinessGatedTaskScheduler extends ThreadPoolTaskScheduler {
+
+    private volatile boolean ready;
+
+    @EventListener
+    public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+        ready = event.getState() == ReadinessState.ACCEPTING_TRAFFIC;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+        return super.schedule(gated(task), trigger);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+        return super.schedule(gated(task), startTime);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+        return super.scheduleAtFixedRate(gated(task), startTime, period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+        return super.scheduleAtFixedRate(gated(task), period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+        return super.scheduleWithFixedDelay(gated(task), startTime, delay);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+        return super.scheduleWithFixedDelay(gated(task), delay);
+    }
+
+    private Runnable gated(Runnable task) {
+        return () -> {
+            if (ready) {
+                task.run();
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package tn.esprit.spring.configs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/* Replication lag of the read replica, polled in the background. The replica is only used once the
+ * application is ready, so the in-memory indexes are always loaded from the primary, and while its lag
+ * stays under maxLagSeconds. */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+
+    private volatile boolean started;
+    private volatile boolean usable;
+    private volatile long lagSeconds = UNREACHABLE;
+
+    /* lagQuery returns the lag in seconds, SHOW SLAVE STATUS is read when it is empty */
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagSeconds) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        started = true;
+        check();
+    }
+
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.lag-check-ms:1000}")
+    public void check() {
+        if (!started) {
+            return;
+        }
+        long lag;
+        try {
+            lag = measure();
+        } catch (DataAccessException e) {
+            if (usable) {
+                log.warn("Replica unreachable, reads go back to the primary : " + e.getMessage());
+            }
+            lag = UNREACHABLE;
+        }
+        record(lag);
+    }
+
+    public void record(long lag) {
+        boolean nowUsable = lag <= maxLagSeconds;
+        if (nowUsable != usable) {
+            log.info(nowUsable ? "Read-only transactions routed to the replica, lag " + lag + " s"
+                    : "Replica lagging " + (lag == UNREACHABLE ? "-" : String.valueOf(lag)) + " s, reads go back to the primary");
+        }
+        lagSeconds = lag;
+        usable = nowUsable;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    private long measure() {
+        if (lagQuery == null || lagQuery.isEmpty()) {
+            return replica.query("SHOW SLAVE STATUS", (ResultSetExtractor<Long>) rs -> {
+                if (!rs.next()) {
+                    return 0L; /* not replicating, nothing to wait for */
+                }
+                long lag = rs.getLong("Seconds_Behind_Master");
+                return rs.wasNull() ? UNREACHABLE : lag; /* replication stopped */
+            });
+        }
+        Long lag = replica.queryForObject(lagQuery, Long.class);
+        return lag == null ? UNREACHABLE : lag;
+    }
+}
@@ -0,0 +1,36 @@
+package tn.esprit.spring.configs;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.metrics.MetricsRegistry;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Connections of read-only transactions come from the replica while it keeps up, every other one from the
+ * primary. Wrapped in a LazyConnectionDataSourceProxy, so the lookup happens on the first statement, once
+ * the transaction is marked read-only. */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Map<Target, LongAdder> routed = new EnumMap<>(Target.class);
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, MetricsRegistry registry) {
+        this.lagMonitor = lagMonitor;
+        for (Target target : Target.values()) {
+            routed.put(target, registry.counter("db_routed_connections_total",
+                    MetricsRegistry.label("target", target.name().toLowerCase())));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Target target = TransactionSynchronizationManager.isCurrentTransactionReadOnly() && lagMonitor.isUsable()
+                ? Target.REPLICA : Target.PRIMARY;
+        routed.get(target).increment();
+        return target;
+    }
+}
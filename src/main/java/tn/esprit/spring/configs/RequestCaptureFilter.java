@@ -0,0 +1,103 @@
+package tn.esprit.spring.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import tn.esprit.spring.wire.BinaryHttpMessageConverter;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/* Records the incoming requests as NDJSON for the load test replay. The request thread only
+ * offers to a bounded queue, a background thread writes the file and drops records when it lags. */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "loadtest.capture.enabled", havingValue = "true")
+public class RequestCaptureFilter extends OncePerRequestFilter {
+
+    private static final int MAX_BODY = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Map<String, Object>> records = new ArrayBlockingQueue<>(100_000);
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public RequestCaptureFilter(ObjectMapper objectMapper,
+                                @Value("${loadtest.capture.file:capture.ndjson}") String file) {
+        this.objectMapper = objectMapper;
+        this.writer = new Thread(() -> write(file), "request-capture");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingRequestWrapper wrapper = new ContentCachingRequestWrapper(request, MAX_BODY);
+        long time = System.currentTimeMillis();
+        try {
+            chain.doFilter(wrapper, response);
+        } finally {
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("t", time);
+            record.put("method", request.getMethod());
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            record.put("path", request.getQueryString() == null ? path : path + "?" + request.getQueryString());
+            record.put("contentType", request.getContentType());
+            byte[] body = wrapper.getContentAsByteArray();
+            boolean binary = request.getContentType() != null
+                    && request.getContentType().startsWith(BinaryHttpMessageConverter.MEDIA_TYPE.toString());
+            if (binary) {
+                record.put("base64", true);
+            }
+            record.put("body", body.length == 0 ? null
+                    : binary ? Base64.getEncoder().encodeToString(body) : new String(body, StandardCharsets.UTF_8));
+            record.put("status", response.getStatus());
+            records.offer(record);
+        }
+    }
+
+    private void write(String file) {
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            while (running || !records.isEmpty()) {
+                Map<String, Object> record = records.poll(1, TimeUnit.SECONDS);
+                if (record == null) {
+                    out.flush();
+                    continue;
+                }
+                out.write(objectMapper.writeValueAsString(record));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            log.error("Request capture stopped", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(5000);
+    }
+}
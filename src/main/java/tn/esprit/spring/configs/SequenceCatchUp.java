@@ -0,0 +1,93 @@
+package tn.esprit.spring.configs;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/* The pooled generators read and bump single-row *_seq tables on MySQL. The skiers, subscriptions and
+ * registrations had IDENTITY columns before, so on an existing database the tables created by ddl-auto
+ * start at 1 : every next_val is moved past the largest id before the first insert. V7 does the same
+ * for the databases migrated by Flyway. Databases with real sequences are created empty and skipped. */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class SequenceCatchUp {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    /* sequence table, entity table, id column */
+    public static final String[][] SEQUENCES = {
+            {"skier_seq", "skier", "num_skier"},
+            {"subscription_seq", "subscription", "num_sub"},
+            {"registration_seq", "registration", "num_registration"},
+            {"lift_scan_seq", "lift_scan", "num_scan"},
+            {"waitlist_seq", "waitlist_entry", "num_entry"},
+            {"renewal_partition_seq", "renewal_partition", "num_partition"}};
+
+    private final DataSource dataSource;
+
+    @PostConstruct
+    public void catchUp() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!"MySQL".equalsIgnoreCase(product) && !"MariaDB".equalsIgnoreCase(product)) {
+                return;
+            }
+            for (String[] sequence : SEQUENCES) {
+                if (exists(connection, sequence[0])) {
+                    catchUp(connection, sequence[0], sequence[1], sequence[2]);
+                }
+            }
+        }
+    }
+
+    /* the pooled optimizer hands out the ids up to next_val from next_val - ALLOCATION_SIZE + 1 */
+    public static void catchUp(Connection connection, String sequence, String table, String id) throws SQLException {
+        long next;
+        try (Statement statement = connection.createStatement();
+             ResultSet max = statement.executeQuery("select coalesce(max(" + id + "), 0) from " + table)) {
+            max.next();
+            next = max.getLong(1) + 1 + ALLOCATION_SIZE;
+        }
+        int moved;
+        try (PreparedStatement statement = connection.prepareStatement("update " + sequence + " set next_val = ? where next_val < ?")) {
+            statement.setLong(1, next);
+            statement.setLong(2, next);
+            moved = statement.executeUpdate();
+        }
+        if (moved == 0) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("select count(*) from " + sequence)) {
+                rows.next();
+                if (rows.getLong(1) > 0) {
+                    return;
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement("insert into " + sequence + " values (?)")) {
+                statement.setLong(1, next);
+                statement.executeUpdate();
+            }
+        }
+        log.info(sequence + " moved to " + next + ", past the ids of " + table);
+    }
+
+    private static boolean exists(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select count(*) from information_schema.tables " +
+                "where table_schema = database() and table_name = ?")) {
+            statement.setString(1, table);
+            try (ResultSet count = statement.executeQuery()) {
+                return count.next() && count.getInt(1) > 0;
+            }
+        }
+    }
+}
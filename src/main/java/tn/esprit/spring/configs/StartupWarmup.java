@@ -0,0 +1,83 @@
+package tn.esprit.spring.configs;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.metrics.StartupMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/* Calls the busiest read endpoints through the local HTTP port before the instance reports ready,
+ * so the first users do not pay for the JIT, the connection pool, the query plans and the catalog caches */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "faststart.warmup.enabled", havingValue = "true")
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final String[] PATHS = {
+            "/piste/all", "/course/all", "/instructor/all",
+            "/skier/page?size=20", "/subscription/page?size=20", "/subscription/revenue",
+            "/skier/search?q=a&limit=10", "/instructor/available?week=1&support=SKI&timeSlot=1" };
+
+    private final ConfigurableApplicationContext context;
+    private final StartupMetrics startupMetrics;
+
+    @Value("${faststart.warmup.iterations:200}")
+    private int iterations;
+
+    @Value("${faststart.exit-after-warmup:false}")
+    private boolean exitAfterWarmup;
+
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!(context instanceof WebServerApplicationContext)) {
+            return;
+        }
+        String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + contextPath;
+        long start = System.nanoTime();
+        int failures = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (String path : PATHS) {
+                failures += get(base + path) ? 0 : 1;
+            }
+        }
+        startupMetrics.warmedUp(System.nanoTime() - start);
+        log.info("Warmed up with " + iterations * PATHS.length + " requests, " + failures + " failed");
+        if (exitAfterWarmup) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private static boolean get(String url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            int status = connection.getResponseCode();
+            try (InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+                if (in != null) {
+                    byte[] buffer = new byte[8192];
+                    while (in.read(buffer) >= 0) {
+                        // the connection is reused once the body is read
+                    }
+                }
+            }
+            return status < 400;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
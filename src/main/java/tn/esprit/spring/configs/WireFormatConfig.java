@@ -0,0 +1,18 @@
+package tn.esprit.spring.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tn.esprit.spring.wire.BinaryHttpMessageConverter;
+
+import java.util.List;
+
+/* Added after the JSON converter, so clients not asking for the binary format keep getting JSON */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new BinaryHttpMessageConverter());
+    }
+}
@@ -0,0 +1,35 @@
+package tn.esprit.spring.controllers;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.CacheStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Tag(name = "\uD83D\uDDC3 Cache")
+@RestController
+@RequestMapping("/cache")
+@RequiredArgsConstructor
+public class CacheRestController {
+
+    private final CacheManager cacheManager;
+
+    @Operation(description = "Hit, miss and eviction statistics of the catalog caches")
+    @GetMapping("/stats")
+    public List<CacheStatistics> getStats(){
+        List<CacheStatistics> statistics = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            CaffeineCache cache = (CaffeineCache) cacheManager.getCache(name);
+            CacheStats stats = cache.getNativeCache().stats();
+            statistics.add(new CacheStatistics(name, cache.getNativeCache().estimatedSize(), stats.hitCount(),
+                    stats.missCount(), stats.evictionCount(), stats.hitRate()));
+        }
+        return statistics;
+    }
+}
@@ -1,14 +1,20 @@
 package tn.esprit.spring.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.CursorPage;
 import tn.esprit.spring.entities.Course;
 import tn.esprit.spring.entities.TypeCourse;
 import tn.esprit.spring.services.ICourseServices;
 
-import java.util.List;
 
 @Tag(name = "\uD83D\uDCDA Course Management")
 @RestController
@@ -24,10 +30,22 @@ public class CourseRestController {
         return  courseServices.addCourse(course);
     }
 
-    @Operation(description = "Retrieve all Courses")
+    @Operation(description = "Retrieve all Courses, answers 304 while the catalog is unchanged")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = Course.class))))
+    @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag", content = @Content)
     @GetMapping("/all")
-    public List<Course> getAllCourses(){
-        return courseServices.retrieveAllCourses();
+    public ResponseEntity<byte[]> getAllCourses(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        return CatalogResponses.of(courseServices.retrieveCoursesCatalog(), ifNoneMatch, acceptEncoding);
+    }
+
+    @Operation(description = "Retrieve Courses page by page, optionally filtered by Type")
+    @GetMapping("/page")
+    public CursorPage<Course> getCoursesPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                             @RequestParam(value = "size", defaultValue = "50") int size,
+                                             @RequestParam(value = "typeCourse", required = false) TypeCourse typeCourse){
+        return courseServices.retrieveCoursesPage(cursor, size, typeCourse);
     }
 
     @Operation(description = "Update Course ")
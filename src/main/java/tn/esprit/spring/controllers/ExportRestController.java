@@ -0,0 +1,33 @@
+package tn.esprit.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tn.esprit.spring.services.IExportServices;
+
+@Tag(name = "\uD83D\uDCE4 Export")
+@RestController
+@RequestMapping("/export")
+@RequiredArgsConstructor
+public class ExportRestController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final IExportServices exportServices;
+
+    @Operation(description = "Stream all Skiers with their Subscription and Registrations as NDJSON")
+    @GetMapping("/skiers")
+    public ResponseEntity<StreamingResponseBody> exportSkiers(){
+        return ResponseEntity.ok().contentType(NDJSON).body(exportServices::exportSkiers);
+    }
+
+    @Operation(description = "Stream all Registrations as NDJSON")
+    @GetMapping("/registrations")
+    public ResponseEntity<StreamingResponseBody> exportRegistrations(){
+        return ResponseEntity.ok().contentType(NDJSON).body(exportServices::exportRegistrations);
+    }
+}
@@ -1,10 +1,20 @@
 package tn.esprit.spring.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.AvailableInstructor;
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.InstructorDTO;
 import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.entities.Support;
 import tn.esprit.spring.services.IInstructorServices;
 
 import java.util.List;
@@ -19,29 +29,48 @@ public class InstructorRestController {
 
     @Operation(description = "Add Instructor")
     @PostMapping("/add")
-    public Instructor addInstructor(@RequestBody Instructor instructor){
+    public InstructorDTO addInstructor(@RequestBody Instructor instructor){
         return  instructorServices.addInstructor(instructor);
     }
     @Operation(description = "Add Instructor and Assign To Course")
     @PutMapping("/addAndAssignToCourse/{numCourse}")
-    public Instructor addAndAssignToInstructor(@RequestBody Instructor instructor, @PathVariable("numCourse")Long numCourse){
+    public InstructorDTO addAndAssignToInstructor(@RequestBody Instructor instructor, @PathVariable("numCourse")Long numCourse){
         return  instructorServices.addInstructorAndAssignToCourse(instructor,numCourse);
     }
-    @Operation(description = "Retrieve all Instructors")
+    @Operation(description = "Retrieve all Instructors, answers 304 while the catalog is unchanged")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = InstructorDTO.class))))
+    @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag", content = @Content)
     @GetMapping("/all")
-    public List<Instructor> getAllInstructors(){
-        return instructorServices.retrieveAllInstructors();
+    public ResponseEntity<byte[]> getAllInstructors(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        return CatalogResponses.of(instructorServices.retrieveInstructorsCatalog(), ifNoneMatch, acceptEncoding);
+    }
+
+    @Operation(description = "Retrieve Instructors page by page")
+    @GetMapping("/page")
+    public CursorPage<InstructorDTO> getInstructorsPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                                     @RequestParam(value = "size", defaultValue = "50") int size){
+        return instructorServices.retrieveInstructorsPage(cursor, size);
+    }
+
+    @Operation(description = "Instructors teaching a support who have no registered course in a week and time slot")
+    @GetMapping("/available")
+    public List<AvailableInstructor> getAvailableInstructors(@RequestParam("week") int numWeek,
+                                                             @RequestParam("support") Support support,
+                                                             @RequestParam("timeSlot") int timeSlot){
+        return instructorServices.retrieveAvailableInstructors(numWeek, support, timeSlot);
     }
 
     @Operation(description = "Update Instructor ")
     @PutMapping("/update")
-    public Instructor updateInstructor(@RequestBody Instructor Instructor){
+    public InstructorDTO updateInstructor(@RequestBody Instructor Instructor){
         return  instructorServices.updateInstructor(Instructor);
     }
 
     @Operation(description = "Retrieve Instructor by Id")
     @GetMapping("/get/{id-instructor}")
-    public Instructor getById(@PathVariable("id-instructor") Long numInstructor){
+    public InstructorDTO getById(@PathVariable("id-instructor") Long numInstructor){
         return instructorServices.retrieveInstructor(numInstructor);
     }
 
@@ -0,0 +1,33 @@
+package tn.esprit.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.LiftScanEvent;
+import tn.esprit.spring.dto.LiftScanReceipt;
+import tn.esprit.spring.services.ILiftScanServices;
+
+import java.util.List;
+
+@Tag(name = "\uD83D\uDEA1 Lift Scans")
+@RestController
+@RequestMapping("/liftscan")
+@RequiredArgsConstructor
+public class LiftScanRestController {
+
+    private final ILiftScanServices liftScanServices;
+
+    @Operation(description = "Record a batch of lift gate scans, written asynchronously. Answers 503 with the number of trailing scans to send again when the buffer is full")
+    @PostMapping("/batch")
+    public ResponseEntity<LiftScanReceipt> ingest(@RequestBody List<LiftScanEvent> events) {
+        LiftScanReceipt receipt = liftScanServices.ingest(events);
+        if (receipt.getRejected() > 0) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(receipt);
+        }
+        return ResponseEntity.accepted().body(receipt);
+    }
+}
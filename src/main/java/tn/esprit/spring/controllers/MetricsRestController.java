@@ -0,0 +1,65 @@
+package tn.esprit.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.HibernateStatistics;
+import tn.esprit.spring.dto.QueryStatistic;
+import tn.esprit.spring.metrics.MetricsRegistry;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Tag(name = "\uD83D\uDCC8 Metrics")
+@RestController
+@RequestMapping("/metrics")
+@RequiredArgsConstructor
+public class MetricsRestController {
+
+    private static final int SLOWEST_QUERIES = 20;
+
+    private final MetricsRegistry metricsRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Operation(description = "Latencies, booking outcomes and pool gauges in the Prometheus text format")
+    @GetMapping(produces = "text/plain; version=0.0.4; charset=utf-8")
+    public String scrape(){
+        return metricsRegistry.scrape();
+    }
+
+    @Operation(description = "Hibernate statistics since startup or the last reset, with the slowest queries")
+    @GetMapping("/hibernate")
+    public HibernateStatistics getHibernateStatistics(){
+        Statistics statistics = statistics();
+        List<QueryStatistic> queries = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            QueryStatistics stats = statistics.getQueryStatistics(query);
+            queries.add(new QueryStatistic(query, stats.getExecutionCount(), stats.getExecutionTotalTime(),
+                    stats.getExecutionMaxTime(), stats.getExecutionRowCount()));
+        }
+        List<QueryStatistic> slowest = queries.stream()
+                .sorted(Comparator.comparingLong(QueryStatistic::getExecutionTotalTime).reversed())
+                .limit(SLOWEST_QUERIES).collect(Collectors.toList());
+        return new HibernateStatistics(statistics.getPrepareStatementCount(), statistics.getQueryExecutionCount(),
+                statistics.getQueryExecutionMaxTime(), statistics.getQueryExecutionMaxTimeQueryString(),
+                statistics.getEntityLoadCount(), statistics.getEntityFetchCount(), statistics.getCollectionLoadCount(),
+                statistics.getCollectionFetchCount(), statistics.getTransactionCount(), slowest);
+    }
+
+    @Operation(description = "Reset the Hibernate statistics")
+    @DeleteMapping("/hibernate")
+    public void resetHibernateStatistics(){
+        statistics().clear();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -1,9 +1,18 @@
 package tn.esprit.spring.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.PisteTrafficDTO;
+import tn.esprit.spring.entities.Color;
 import tn.esprit.spring.entities.Piste;
 import tn.esprit.spring.services.IPisteServices;
 
@@ -22,10 +31,33 @@ public class PisteRestController {
     public Piste addPiste(@RequestBody Piste piste){
         return  pisteServices.addPiste(piste);
     }
-    @Operation(description = "Retrieve all Pistes")
+    @Operation(description = "Retrieve all Pistes, answers 304 while the catalog is unchanged")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = Piste.class))))
+    @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag", content = @Content)
     @GetMapping("/all")
-    public List<Piste> getAllPistes(){
-        return pisteServices.retrieveAllPistes();
+    public ResponseEntity<byte[]> getAllPistes(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        return CatalogResponses.of(pisteServices.retrievePistesCatalog(), ifNoneMatch, acceptEncoding);
+    }
+
+    @Operation(description = "Retrieve Pistes page by page, optionally filtered by Color")
+    @GetMapping("/page")
+    public CursorPage<Piste> getPistesPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam(value = "size", defaultValue = "50") int size,
+                                           @RequestParam(value = "color", required = false) Color color){
+        return pisteServices.retrievePistesPage(cursor, size, color);
+    }
+
+    @Operation(description = "Busiest Pistes by lift scans over the last minutes (at most 60), optionally filtered by Color. Answers 400 when top is below 1")
+    @GetMapping("/busiest")
+    public ResponseEntity<List<PisteTrafficDTO>> getBusiestPistes(@RequestParam(value = "minutes", defaultValue = "15") int minutes,
+                                                                  @RequestParam(value = "color", required = false) Color color,
+                                                                  @RequestParam(value = "top", defaultValue = "10") int top){
+        if (top < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(pisteServices.retrieveBusiestPistes(minutes, color, top));
     }
 
     @Operation(description = "Retrieve Piste by Id")
@@ -3,7 +3,12 @@ package tn.esprit.spring.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.BookingTicket;
+import tn.esprit.spring.dto.WaitlistPosition;
 import tn.esprit.spring.entities.Instructor;
 import tn.esprit.spring.entities.Registration;
 import tn.esprit.spring.entities.Support;
@@ -11,6 +16,7 @@ import tn.esprit.spring.entities.TypeSubscription;
 import tn.esprit.spring.services.IRegistrationServices;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Tag(name = "\uD83D\uDDD3️Registration Management")
 @RestController
@@ -43,6 +49,61 @@ public class RegistrationRestController {
         return  registrationServices.addRegistrationAndAssignToSkierAndCourse(registration,numSkieur,numCourse);
     }
 
+    @Operation(description = "Queue a Registration for a Skier and a Course, answers with a booking ticket " +
+            "or, with wait=true, once the booking is decided")
+    @PutMapping("/async/addAndAssignToSkierAndCourse/{numSkieur}/{numCourse}")
+    public CompletableFuture<ResponseEntity<BookingTicket>> addAndAssignToSkierAndCourseAsync(@RequestBody Registration registration,
+                                                                                          @PathVariable("numSkieur") Long numSkieur,
+                                                                                          @PathVariable("numCourse") Long numCourse,
+                                                                                          @RequestParam(value = "wait", defaultValue = "false") boolean wait)
+    {
+        BookingTicket ticket = registrationServices.submitRegistration(registration, numSkieur, numCourse);
+        if (ticket == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1").<BookingTicket>build());
+        }
+        if (!wait) {
+            return CompletableFuture.completedFuture(ResponseEntity.accepted().body(ticket));
+        }
+        return ticket.getCompletion().thenApply(ResponseEntity::ok);
+    }
+
+    @Operation(description = "Status of a queued Registration")
+    @GetMapping("/async/{ticket}")
+    public ResponseEntity<BookingTicket> getBookingTicket(@PathVariable("ticket") String ticket) {
+        BookingTicket bookingTicket = registrationServices.retrieveBookingTicket(ticket);
+        return bookingTicket == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(bookingTicket);
+    }
+
+    @Operation(description = "Delete Registration by Id, its seat goes to the waitlist")
+    @DeleteMapping("/delete/{numRegistration}")
+    public void deleteById(@PathVariable("numRegistration") Long numRegistration) {
+        registrationServices.removeRegistration(numRegistration);
+    }
+
+    @Operation(description = "Wait for a seat in a full collective Course week, the Skier is registered automatically when one frees up")
+    @PutMapping("/waitlist/{numSkieur}/{numCourse}")
+    public ResponseEntity<WaitlistPosition> joinWaitlist(@RequestBody Registration registration,
+                                                         @PathVariable("numSkieur") Long numSkieur,
+                                                         @PathVariable("numCourse") Long numCourse) {
+        WaitlistPosition position = registrationServices.joinWaitlist(numSkieur, numCourse, registration.getNumWeek());
+        return position == null ? ResponseEntity.badRequest().build() : ResponseEntity.accepted().body(position);
+    }
+
+    @Operation(description = "Position in the waitlist, or the Registration once promoted")
+    @GetMapping("/waitlist/{numEntry}")
+    public ResponseEntity<WaitlistPosition> getWaitlistPosition(@PathVariable("numEntry") Long numEntry) {
+        WaitlistPosition position = registrationServices.retrieveWaitlistPosition(numEntry);
+        return position == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(position);
+    }
+
+    @Operation(description = "Leave the waitlist")
+    @DeleteMapping("/waitlist/{numEntry}")
+    public ResponseEntity<WaitlistPosition> leaveWaitlist(@PathVariable("numEntry") Long numEntry) {
+        WaitlistPosition position = registrationServices.leaveWaitlist(numEntry);
+        return position == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(position);
+    }
+
     @Operation(description = "Numbers of the weeks when an instructor has given lessons in a given support")
     @GetMapping("/numWeeks/{numInstructor}/{support}")
     public List<Integer> numWeeksCourseOfInstructorBySupport(@PathVariable("numInstructor")Long numInstructor,
@@ -3,11 +3,20 @@ package tn.esprit.spring.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.ImportFormat;
+import tn.esprit.spring.dto.ImportReport;
+import tn.esprit.spring.dto.SkierDTO;
+import tn.esprit.spring.dto.SkierSearchResult;
 import tn.esprit.spring.entities.Skier;
 import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.services.ISkierImportServices;
 import tn.esprit.spring.services.ISkierServices;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @Tag(name = "\uD83C\uDFC2 Skier Management")
@@ -17,40 +26,49 @@ import java.util.List;
 public class SkierRestController {
 
     private final ISkierServices skierServices;
+    private final ISkierImportServices skierImportServices;
 
     @Operation(description = "Add Skier")
     @PostMapping("/add")
-    public Skier addSkier(@RequestBody Skier skier){
+    public SkierDTO addSkier(@RequestBody Skier skier){
         return  skierServices.addSkier(skier);
     }
 
+    @Operation(description = "Bulk import Skiers with their Subscription (CSV or NDJSON)")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportReport importSkiers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                     InputStream body) throws IOException {
+        ImportFormat format = contentType.startsWith("text/csv") ? ImportFormat.CSV : ImportFormat.NDJSON;
+        return skierImportServices.importSkiers(body, format);
+    }
+
     @Operation(description = "Add Skier And Assign To Course")
     @PostMapping("/addAndAssign/{numCourse}")
-    public Skier addSkierAndAssignToCourse(@RequestBody Skier skier,
+    public SkierDTO addSkierAndAssignToCourse(@RequestBody Skier skier,
                                            @PathVariable("numCourse") Long numCourse){
         return  skierServices.addSkierAndAssignToCourse(skier,numCourse);
     }
     @Operation(description = "Assign Skier To Subscription")
     @PutMapping("/assignToSub/{numSkier}/{numSub}")
-    public Skier assignToSubscription(@PathVariable("numSkier")Long numSkier,
+    public SkierDTO assignToSubscription(@PathVariable("numSkier")Long numSkier,
                                @PathVariable("numSub") Long numSub){
         return skierServices.assignSkierToSubscription(numSkier, numSub);
     }
 
     @Operation(description = "Assign Skier To Piste")
     @PutMapping("/assignToPiste/{numSkier}/{numPiste}")
-    public Skier assignToPiste(@PathVariable("numSkier")Long numSkier,
+    public SkierDTO assignToPiste(@PathVariable("numSkier")Long numSkier,
                                @PathVariable("numPiste") Long numPiste){
         return skierServices.assignSkierToPiste(numSkier,numPiste);
     }
     @Operation(description = "retrieve Skiers By Subscription Type")
     @GetMapping("/getSkiersBySubscription")
-    public List<Skier> retrieveSkiersBySubscriptionType(TypeSubscription typeSubscription) {
+    public List<SkierDTO> retrieveSkiersBySubscriptionType(TypeSubscription typeSubscription) {
         return skierServices.retrieveSkiersBySubscriptionType(typeSubscription);
     }
     @Operation(description = "Retrieve Skier by Id")
     @GetMapping("/get/{id-skier}")
-    public Skier getById(@PathVariable("id-skier") Long numSkier){
+    public SkierDTO getById(@PathVariable("id-skier") Long numSkier){
         return skierServices.retrieveSkier(numSkier);
     }
 
@@ -60,10 +78,25 @@ public class SkierRestController {
         skierServices.removeSkier(numSkier);
     }
 
+    @Operation(description = "Retrieve Skiers page by page, optionally filtered by Subscription Type")
+    @GetMapping("/page")
+    public CursorPage<SkierDTO> getSkiersPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam(value = "size", defaultValue = "50") int size,
+                                           @RequestParam(value = "typeSub", required = false) TypeSubscription typeSubscription){
+        return skierServices.retrieveSkiersPage(cursor, size, typeSubscription);
+    }
+
     @Operation(description = "Retrieve all Skiers")
     @GetMapping("/all")
-    public List<Skier> getAllSkiers(){
+    public List<SkierDTO> getAllSkiers(){
         return skierServices.retrieveAllSkiers();
     }
 
+    @Operation(description = "Search Skiers by the beginning of the words of their first name, last name or city")
+    @GetMapping("/search")
+    public List<SkierSearchResult> searchSkiers(@RequestParam("q") String query,
+                                                @RequestParam(value = "limit", defaultValue = "20") int limit){
+        return skierServices.searchSkiers(query, limit);
+    }
+
 }
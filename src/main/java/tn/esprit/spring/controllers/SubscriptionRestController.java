@@ -3,7 +3,11 @@ package tn.esprit.spring.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.RenewalReport;
+import tn.esprit.spring.dto.RevenueReport;
 import tn.esprit.spring.entities.Subscription;
 import tn.esprit.spring.entities.TypeSubscription;
 import tn.esprit.spring.services.ISubscriptionServices;
@@ -36,6 +40,33 @@ public class SubscriptionRestController {
     public Set<Subscription> getSubscriptionsByType(@PathVariable("typeSub")TypeSubscription typeSubscription){
         return subscriptionServices.getSubscriptionByType(typeSubscription);
     }
+    @Operation(description = "Retrieve Subscriptions page by page, optionally filtered by Type")
+    @GetMapping("/page")
+    public CursorPage<Subscription> getSubscriptionsPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                                         @RequestParam(value = "size", defaultValue = "50") int size,
+                                                         @RequestParam(value = "typeSub", required = false) TypeSubscription typeSubscription){
+        return subscriptionServices.retrieveSubscriptionsPage(cursor, size, typeSubscription);
+    }
+
+    @Operation(description = "Monthly Recurring Revenue and its breakdown by Subscription Type")
+    @GetMapping("/revenue")
+    public RevenueReport getRevenue(){
+        return subscriptionServices.retrieveRevenue();
+    }
+
+    @Operation(description = "Renew the Subscriptions ending within the next days, in the background")
+    @PostMapping("/renewal")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public RenewalReport startRenewal(@RequestParam(value = "windowDays", required = false) Integer windowDays){
+        return subscriptionServices.startRenewal(windowDays);
+    }
+
+    @Operation(description = "Progress of the last Subscription renewal")
+    @GetMapping("/renewal")
+    public RenewalReport getRenewal(){
+        return subscriptionServices.retrieveRenewal();
+    }
+
     @Operation(description = "Update Subscription ")
     @PutMapping("/update")
     public Subscription updateSubscription(@RequestBody Subscription subscription){
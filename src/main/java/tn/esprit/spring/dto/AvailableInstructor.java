@@ -0,0 +1,25 @@
+package tn.esprit.spring.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import tn.esprit.spring.entities.Instructor;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class AvailableInstructor {
+
+	Long numInstructor;
+	String firstName;
+	String lastName;
+
+	public static AvailableInstructor from(Instructor instructor) {
+		return new AvailableInstructor(instructor.getNumInstructor(), instructor.getFirstName(), instructor.getLastName());
+	}
+}
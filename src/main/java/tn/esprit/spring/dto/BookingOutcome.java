@@ -0,0 +1,5 @@
+package tn.esprit.spring.dto;
+
+public enum BookingOutcome {
+	PENDING, ACCEPTED, FULL, WRONG_AGE, DUPLICATE, NOT_FOUND, FAILED
+}
@@ -0,0 +1,39 @@
+package tn.esprit.spring.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+import java.util.concurrent.CompletableFuture;
+
+@Getter
+@Setter
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class BookingTicket {
+
+	final String ticket;
+	final Long numSkier;
+	final Long numCourse;
+	final int numWeek;
+	volatile BookingOutcome outcome = BookingOutcome.PENDING;
+	volatile Long numRegistration;
+	volatile long completedAt;
+	@JsonIgnore
+	final CompletableFuture<BookingTicket> completion = new CompletableFuture<>();
+
+	public BookingTicket(String ticket, Long numSkier, Long numCourse, int numWeek) {
+		this.ticket = ticket;
+		this.numSkier = numSkier;
+		this.numCourse = numCourse;
+		this.numWeek = numWeek;
+	}
+
+	public void complete(BookingOutcome outcome, Long numRegistration) {
+		this.numRegistration = numRegistration;
+		this.outcome = outcome;
+		this.completedAt = System.currentTimeMillis();
+		completion.complete(this);
+	}
+}
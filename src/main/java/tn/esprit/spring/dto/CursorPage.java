@@ -0,0 +1,87 @@
+package tn.esprit.spring.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/* One page of a keyset-paginated listing, nextCursor is null on the last page */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class CursorPage<T> {
+
+	public static final int MAX_SIZE = 500;
+
+	List<T> content;
+	String nextCursor;
+
+	public static int clampSize(int size) {
+		return Math.max(1, Math.min(size, MAX_SIZE));
+	}
+
+	/* asks for one row more than the page size to know whether there is a next page */
+	public static Pageable limitOf(int size) {
+		return PageRequest.of(0, clampSize(size) + 1);
+	}
+
+	public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Long> idOf) {
+		int pageSize = clampSize(size);
+		if (rows.size() <= pageSize) {
+			return new CursorPage<>(rows, null);
+		}
+		List<T> content = new ArrayList<>(rows.subList(0, pageSize));
+		return new CursorPage<>(content, encode(idOf.apply(content.get(pageSize - 1))));
+	}
+
+	public <R> CursorPage<R> map(Function<T, R> mapper) {
+		List<R> mapped = new ArrayList<>(content.size());
+		for (T row : content) {
+			mapped.add(mapper.apply(row));
+		}
+		return new CursorPage<>(mapped, nextCursor);
+	}
+
+	public static long decode(String cursor) {
+		if (cursor == null || cursor.isEmpty()) {
+			return 0L;
+		}
+		long after;
+		try {
+			after = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+		} catch (IllegalArgumentException e) {
+			throw new InvalidCursorException(cursor, e);
+		}
+		if (after < 0) {
+			throw new InvalidCursorException(cursor, null);
+		}
+		return after;
+	}
+
+	public static String encode(long id) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/* a cursor the client made up or damaged, answered with a 400 */
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public static class InvalidCursorException extends IllegalArgumentException {
+
+		public InvalidCursorException(String cursor, Throwable cause) {
+			super("Invalid cursor " + cursor, cause);
+		}
+	}
+}
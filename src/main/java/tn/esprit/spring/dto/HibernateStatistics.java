@@ -0,0 +1,29 @@
+package tn.esprit.spring.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class HibernateStatistics {
+
+	long prepareStatementCount;
+	long queryExecutionCount;
+	long queryExecutionMaxTime;
+	String queryExecutionMaxTimeQueryString;
+	long entityLoadCount;
+	long entityFetchCount;
+	long collectionLoadCount;
+	long collectionFetchCount;
+	long transactionCount;
+	List<QueryStatistic> slowestQueries;
+}
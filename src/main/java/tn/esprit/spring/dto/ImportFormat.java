@@ -0,0 +1,5 @@
+package tn.esprit.spring.dto;
+
+public enum ImportFormat {
+	CSV, NDJSON
+}
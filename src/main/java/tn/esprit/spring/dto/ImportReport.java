@@ -0,0 +1,24 @@
+package tn.esprit.spring.dto;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class ImportReport {
+
+	long rowsRead;
+	long rowsImported;
+	long rowsRejected;
+	long durationMillis;
+	double rowsPerSecond;
+	List<ImportError> errors = new ArrayList<>();
+}
@@ -0,0 +1,44 @@
+package tn.esprit.spring.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Instructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class InstructorDTO {
+
+	Long numInstructor;
+	String firstName;
+	String lastName;
+	LocalDate dateOfHire;
+	List<Course> courses;
+
+	public static InstructorDTO from(Instructor instructor) {
+		if (instructor == null) {
+			return null;
+		}
+		List<Course> courses = instructor.getCourses() == null ? Collections.emptyList()
+				: new ArrayList<>(instructor.getCourses());
+		return new InstructorDTO(instructor.getNumInstructor(), instructor.getFirstName(),
+				instructor.getLastName(), instructor.getDateOfHire(), courses);
+	}
+
+	public static List<InstructorDTO> from(List<Instructor> instructors) {
+		return instructors.stream().map(InstructorDTO::from).collect(Collectors.toList());
+	}
+}
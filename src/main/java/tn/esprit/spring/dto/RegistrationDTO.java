@@ -0,0 +1,24 @@
+package tn.esprit.spring.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import tn.esprit.spring.entities.Registration;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class RegistrationDTO {
+
+	Long numRegistration;
+	int numWeek;
+
+	public static RegistrationDTO from(Registration registration) {
+		return new RegistrationDTO(registration.getNumRegistration(), registration.getNumWeek());
+	}
+}
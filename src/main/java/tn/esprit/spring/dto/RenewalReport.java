@@ -0,0 +1,26 @@
+package tn.esprit.spring.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class RenewalReport {
+
+	boolean running;
+	LocalDate dueFrom;
+	LocalDate dueTo;
+	int partitions;
+	int completedPartitions;
+	long renewed;
+	long skipped;
+}
@@ -0,0 +1,47 @@
+package tn.esprit.spring.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.entities.Subscription;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/* Read model of a Skier, built while the registrations are still reachable so that
+ * serialization never goes back to the database */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class SkierDTO {
+
+	Long numSkier;
+	String firstName;
+	String lastName;
+	LocalDate dateOfBirth;
+	String city;
+	Subscription subscription;
+	List<RegistrationDTO> registrations;
+
+	public static SkierDTO from(Skier skier) {
+		if (skier == null) {
+			return null;
+		}
+		List<RegistrationDTO> registrations = skier.getRegistrations() == null ? Collections.emptyList()
+				: skier.getRegistrations().stream().map(RegistrationDTO::from).collect(Collectors.toList());
+		return new SkierDTO(skier.getNumSkier(), skier.getFirstName(), skier.getLastName(),
+				skier.getDateOfBirth(), skier.getCity(), skier.getSubscription(), registrations);
+	}
+
+	public static List<SkierDTO> from(List<Skier> skiers) {
+		return skiers.stream().map(SkierDTO::from).collect(Collectors.toList());
+	}
+}
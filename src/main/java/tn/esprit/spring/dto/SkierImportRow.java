@@ -0,0 +1,30 @@
+package tn.esprit.spring.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import tn.esprit.spring.entities.TypeSubscription;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class SkierImportRow {
+
+	String firstName;
+	String lastName;
+	LocalDate dateOfBirth;
+	String city;
+	TypeSubscription typeSub;
+	LocalDate startDate;
+	Float price;
+	/* optional registration of the imported skier */
+	Long numCourse;
+	Integer numWeek;
+}
@@ -0,0 +1,25 @@
+package tn.esprit.spring.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import tn.esprit.spring.entities.WaitlistStatus;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class WaitlistPosition {
+
+	Long numEntry;
+	Long numSkier;
+	Long numCourse;
+	int numWeek;
+	WaitlistStatus status;
+	int position; /* 1 for the next skier promoted, 0 once the entry left the waitlist */
+	Long numRegistration;
+}
@@ -30,6 +30,7 @@ public class Course implements Serializable {
 	Support support;
 	Float price;
 	int timeSlot;
+	Integer capacity; /* seats per week, defaults to registration.course.default-capacity when null */
 
 	@JsonIgnore
 	@OneToMany(mappedBy= "course")
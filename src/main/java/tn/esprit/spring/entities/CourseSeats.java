@@ -0,0 +1,44 @@
+package tn.esprit.spring.entities;
+
+import java.io.Serializable;
+
+import javax.persistence.*;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/* Seats taken in a course week, shared by the instances. The row is updated in the transaction
+ * inserting or deleting the registration, so it always matches the committed registrations. */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+@Entity
+@IdClass(CourseSeats.Key.class)
+public class CourseSeats implements Serializable {
+
+	@Id
+	Long numCourse;
+	@Id
+	Integer numWeek;
+	int taken;
+
+	@Getter
+	@Setter
+	@EqualsAndHashCode
+	@AllArgsConstructor
+	@NoArgsConstructor
+	@FieldDefaults(level=AccessLevel.PRIVATE)
+	public static class Key implements Serializable {
+		Long numCourse;
+		Integer numWeek;
+	}
+}
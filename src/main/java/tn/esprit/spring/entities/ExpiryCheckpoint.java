@@ -0,0 +1,33 @@
+package tn.esprit.spring.entities;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.persistence.*;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/* Last day whose subscription expiries were processed, a single row */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+@Entity
+public class ExpiryCheckpoint implements Serializable {
+
+	public static final Integer ID = 1;
+
+	@Id
+	Integer id;
+	LocalDate processedThrough;
+	LocalDateTime updatedAt;
+}
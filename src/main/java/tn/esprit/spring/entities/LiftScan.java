@@ -0,0 +1,34 @@
+package tn.esprit.spring.entities;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import javax.persistence.*;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+/* A skier passing a lift gate of a piste. Append only : the skier and the piste are kept as plain
+ * numbers so that writing a scan never loads nor locks them. */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+@Entity
+@Table(indexes = @Index(name = "idx_lift_scan_time", columnList = "scannedAt"))
+public class LiftScan implements Serializable {
+
+	@Id
+	@GeneratedValue(strategy=GenerationType.SEQUENCE, generator="lift_scan_seq")
+	@SequenceGenerator(name="lift_scan_seq", sequenceName="lift_scan_seq", allocationSize=50)
+	Long numScan;
+	Long numSkier;
+	Long numPiste;
+	LocalDateTime scannedAt;
+
+}
@@ -3,10 +3,15 @@ package tn.esprit.spring.entities;
 import java.io.Serializable;
 
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AccessLevel;
@@ -23,17 +28,23 @@ import lombok.experimental.FieldDefaults;
 @NoArgsConstructor
 @FieldDefaults(level=AccessLevel.PRIVATE)
 @Entity
+@Table(indexes = {
+		@Index(name = "idx_registration_course_week", columnList = "course_num_course, numWeek"),
+		@Index(name = "idx_registration_skier_week_course", columnList = "skier_num_skier, numWeek, course_num_course")})
 public class Registration implements Serializable {
 
 	@Id
-	@GeneratedValue(strategy=GenerationType.IDENTITY)
+	@GeneratedValue(strategy=GenerationType.SEQUENCE, generator="registration_seq")
+	@SequenceGenerator(name="registration_seq", sequenceName="registration_seq", allocationSize=50)
 	Long numRegistration;
 	int numWeek;
 
 	@JsonIgnore
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "skier_num_skier")
     Skier skier;
 	@JsonIgnore
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "course_num_course")
 	Course course;
 }
@@ -0,0 +1,39 @@
+package tn.esprit.spring.entities;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.persistence.*;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+/* A range of subscription numbers renewed by one worker of the renewal job. lastNumSub is the
+ * checkpoint : it is saved in the transaction renewing the chunk, so a restarted job goes on after it. */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+@Entity
+public class RenewalPartition implements Serializable {
+
+	@Id
+	@GeneratedValue(strategy=GenerationType.SEQUENCE, generator="renewal_partition_seq")
+	@SequenceGenerator(name="renewal_partition_seq", sequenceName="renewal_partition_seq", allocationSize=50)
+	Long numPartition;
+	LocalDate dueFrom;
+	LocalDate dueTo;
+	Long lastNumSub; /* exclusive lower bound, starts at the beginning of the range */
+	Long toNumSub;
+	long renewed;
+	long skipped; /* subscriptions without a type, left as they are */
+	boolean completed;
+	LocalDateTime updatedAt;
+
+}
@@ -0,0 +1,34 @@
+package tn.esprit.spring.entities;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import javax.persistence.*;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+@Entity
+public class RevenueSummary implements Serializable {
+
+	@Id
+	@Enumerated(EnumType.STRING)
+	TypeSubscription typeSub;
+	double totalPrice;
+	long activeCount;
+	LocalDateTime updatedAt;
+
+	public float averagePrice() {
+		return activeCount == 0 ? 0f : (float) (totalPrice / activeCount);
+	}
+}
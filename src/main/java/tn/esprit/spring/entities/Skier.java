@@ -8,6 +8,7 @@ import java.util.Set;
 import javax.persistence.*;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.BatchSize;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -21,10 +22,12 @@ import lombok.experimental.FieldDefaults;
 @NoArgsConstructor
 @FieldDefaults(level=AccessLevel.PRIVATE)
 @Entity
+@Table(indexes = @Index(name = "idx_skier_subscription", columnList = "subscription_num_sub"))
 public class Skier implements Serializable {
 
 	@Id
-	@GeneratedValue(strategy=GenerationType.IDENTITY)
+	@GeneratedValue(strategy=GenerationType.SEQUENCE, generator="skier_seq")
+	@SequenceGenerator(name="skier_seq", sequenceName="skier_seq", allocationSize=50)
 	Long numSkier;
 	String firstName;
 	String lastName;
@@ -32,6 +35,7 @@ public class Skier implements Serializable {
 	String city;
 
 	@OneToOne(cascade = {CascadeType.PERSIST, CascadeType.REMOVE})
+	@JoinColumn(name = "subscription_num_sub")
 	Subscription subscription;
 
 	@JsonIgnore
@@ -43,6 +47,7 @@ public class Skier implements Serializable {
 	private Set<Piste> pistes;
 
 
+	@BatchSize(size = 100)
 	@OneToMany(mappedBy = "skier")
 	Set<Registration> registrations;
 
@@ -19,10 +19,15 @@ import lombok.experimental.FieldDefaults;
 @NoArgsConstructor
 @FieldDefaults(level=AccessLevel.PRIVATE)
 @Entity
+@Table(indexes = {
+		@Index(name = "idx_subscription_end_date", columnList = "endDate"),
+		@Index(name = "idx_subscription_type_start", columnList = "typeSub, startDate"),
+		@Index(name = "idx_subscription_start_date", columnList = "startDate")})
 public class Subscription implements Serializable {
 
 	@Id
-	@GeneratedValue(strategy=GenerationType.IDENTITY)
+	@GeneratedValue(strategy=GenerationType.SEQUENCE, generator="subscription_seq")
+	@SequenceGenerator(name="subscription_seq", sequenceName="subscription_seq", allocationSize=50)
 	Long numSub;
 	LocalDate startDate;
 	LocalDate endDate;
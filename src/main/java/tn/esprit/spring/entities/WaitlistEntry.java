@@ -0,0 +1,37 @@
+package tn.esprit.spring.entities;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import javax.persistence.*;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+/* A skier waiting for a seat in a full course week, promoted in arrival order */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level=AccessLevel.PRIVATE)
+@Entity
+@Table(indexes = @Index(name = "idx_waitlist_status", columnList = "status"))
+public class WaitlistEntry implements Serializable {
+
+	@Id
+	@GeneratedValue(strategy=GenerationType.SEQUENCE, generator="waitlist_seq")
+	@SequenceGenerator(name="waitlist_seq", sequenceName="waitlist_seq", allocationSize=50)
+	Long numEntry;
+	Long numSkier;
+	Long numCourse;
+	int numWeek;
+	LocalDateTime requestedAt;
+	@Enumerated(EnumType.STRING)
+	WaitlistStatus status;
+	Long numRegistration; /* set once promoted */
+
+}
@@ -0,0 +1,35 @@
+package tn.esprit.spring.metrics;
+
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.dto.BookingOutcome;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/* Booking outcomes of the synchronous endpoint and of the asynchronous pipeline */
+@Component
+public class BookingMetrics {
+
+    private final MetricsRegistry registry;
+    private final LongAdder[] sync = new LongAdder[BookingOutcome.values().length];
+    private final LongAdder[] async = new LongAdder[BookingOutcome.values().length];
+
+    public BookingMetrics(MetricsRegistry registry) {
+        this.registry = registry;
+        for (BookingOutcome outcome : BookingOutcome.values()) {
+            if (outcome != BookingOutcome.PENDING) {
+                String label = MetricsRegistry.label("outcome", outcome.name().toLowerCase());
+                sync[outcome.ordinal()] = registry.counter("booking_outcomes_total", MetricsRegistry.label("mode", "sync") + "," + label);
+                async[outcome.ordinal()] = registry.counter("booking_outcomes_total", MetricsRegistry.label("mode", "async") + "," + label);
+            }
+        }
+    }
+
+    public void record(BookingOutcome outcome, boolean asynchronous) {
+        (asynchronous ? async : sync)[outcome.ordinal()].increment();
+    }
+
+    public void bindQueue(Supplier<Number> pending) {
+        registry.gauge("booking_queue_pending", "", pending);
+    }
+}
@@ -0,0 +1,50 @@
+package tn.esprit.spring.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.configs.ReplicaLagMonitor;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/* Connection pool gauges, read from the Hikari pools at scrape time, and the replica lag when a replica is configured */
+@Component
+@RequiredArgsConstructor
+public class DataSourceMetrics {
+
+    private final List<HikariDataSource> pools;
+    private final ObjectProvider<ReplicaLagMonitor> lagMonitor;
+    private final MetricsRegistry registry;
+
+    @PostConstruct
+    public void bind() {
+        for (HikariDataSource pool : pools) {
+            bind(pool);
+        }
+        lagMonitor.ifAvailable(monitor -> {
+            registry.gauge("db_replica_lag_seconds", "", () -> monitor.getLagSeconds() == ReplicaLagMonitor.UNREACHABLE ? -1 : monitor.getLagSeconds());
+            registry.gauge("db_replica_usable", "", () -> monitor.isUsable() ? 1 : 0);
+        });
+    }
+
+    void bind(HikariDataSource hikari) {
+        String labels = MetricsRegistry.label("pool", String.valueOf(hikari.getPoolName()));
+        gauge("db_pool_connections_active", labels, hikari, HikariPoolMXBean::getActiveConnections);
+        gauge("db_pool_connections_idle", labels, hikari, HikariPoolMXBean::getIdleConnections);
+        gauge("db_pool_connections_total", labels, hikari, HikariPoolMXBean::getTotalConnections);
+        gauge("db_pool_threads_awaiting", labels, hikari, HikariPoolMXBean::getThreadsAwaitingConnection);
+        registry.gauge("db_pool_connections_max", labels, hikari::getMaximumPoolSize);
+    }
+
+    /* the pool is started on the first connection, until then the gauges read 0 */
+    private void gauge(String name, String labels, HikariDataSource hikari, ToIntFunction<HikariPoolMXBean> value) {
+        registry.gauge(name, labels, () -> {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool == null ? 0 : value.applyAsInt(pool);
+        });
+    }
+}
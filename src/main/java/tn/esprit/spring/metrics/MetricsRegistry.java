@@ -0,0 +1,90 @@
+package tn.esprit.spring.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/* Timers, counters and gauges of the application, rendered in the Prometheus text format.
+ * Callers keep the returned histogram or counter, so recording never goes through the maps. */
+@Component
+public class MetricsRegistry {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final ConcurrentMap<String, ConcurrentMap<String, LatencyHistogram>> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, Supplier<Number>>> gauges = new ConcurrentHashMap<>();
+
+    /* durations are recorded in nanoseconds and exposed in seconds */
+    public LatencyHistogram timer(String name, String labels) {
+        return timers.computeIfAbsent(name, k -> new ConcurrentHashMap<>()).computeIfAbsent(labels, k -> new LatencyHistogram());
+    }
+
+    public LongAdder counter(String name, String labels) {
+        return counters.computeIfAbsent(name, k -> new ConcurrentHashMap<>()).computeIfAbsent(labels, k -> new LongAdder());
+    }
+
+    public void gauge(String name, String labels, Supplier<Number> value) {
+        gauges.computeIfAbsent(name, k -> new ConcurrentHashMap<>()).put(labels, value);
+    }
+
+    public static String label(String name, String value) {
+        return name + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        for (Map.Entry<String, ConcurrentMap<String, LatencyHistogram>> family : new TreeMap<>(timers).entrySet()) {
+            String name = family.getKey();
+            Map<String, LatencyHistogram> series = new TreeMap<>(family.getValue());
+            out.append("# TYPE ").append(name).append(" summary\n");
+            for (Map.Entry<String, LatencyHistogram> entry : series.entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                String labels = entry.getKey();
+                for (double quantile : QUANTILES) {
+                    sample(out, name, join(labels, "quantile=\"" + quantile + "\""), seconds(histogram.valueAtPercentile(quantile * 100)));
+                }
+                sample(out, name + "_count", labels, histogram.getCount());
+                sample(out, name + "_sum", labels, seconds(histogram.getSum()));
+            }
+            out.append("# TYPE ").append(name).append("_max gauge\n");
+            for (Map.Entry<String, LatencyHistogram> entry : series.entrySet()) {
+                sample(out, name + "_max", entry.getKey(), seconds(entry.getValue().getMax()));
+            }
+        }
+        for (Map.Entry<String, ConcurrentMap<String, LongAdder>> family : new TreeMap<>(counters).entrySet()) {
+            out.append("# TYPE ").append(family.getKey()).append(" counter\n");
+            for (Map.Entry<String, LongAdder> entry : new TreeMap<>(family.getValue()).entrySet()) {
+                sample(out, family.getKey(), entry.getKey(), entry.getValue().sum());
+            }
+        }
+        for (Map.Entry<String, ConcurrentMap<String, Supplier<Number>>> family : new TreeMap<>(gauges).entrySet()) {
+            out.append("# TYPE ").append(family.getKey()).append(" gauge\n");
+            for (Map.Entry<String, Supplier<Number>> entry : new TreeMap<>(family.getValue()).entrySet()) {
+                sample(out, family.getKey(), entry.getKey(), entry.getValue().get());
+            }
+        }
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, Number value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String join(String labels, String label) {
+        return labels.isEmpty() ? label : labels + "," + label;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+}
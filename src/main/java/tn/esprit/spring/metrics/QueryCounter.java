@@ -0,0 +1,50 @@
+package tn.esprit.spring.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/* Counts the SQL statements Hibernate prepares on the current thread, so that a request or a test
+ * can tell how many queries it caused. The statements themselves are only kept while recording. */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+    @Override
+    public String inspect(String sql) {
+        Counts counts = COUNTS.get();
+        counts.count++;
+        if (counts.statements != null) {
+            counts.statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        Counts counts = COUNTS.get();
+        counts.count = 0;
+        counts.statements = null;
+    }
+
+    public static long count() {
+        return COUNTS.get().count;
+    }
+
+    /* resets the counter and keeps the statements until the next reset */
+    public static void record() {
+        reset();
+        COUNTS.get().statements = new ArrayList<>();
+    }
+
+    public static List<String> statements() {
+        List<String> statements = COUNTS.get().statements;
+        return statements == null ? Collections.emptyList() : statements;
+    }
+
+    private static class Counts {
+        long count;
+        List<String> statements;
+    }
+}
@@ -0,0 +1,46 @@
+package tn.esprit.spring.metrics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/* Startup time from the JVM start, so that class loading and the class data sharing archive are
+ * counted : started = context refreshed, ready = runners (warmup included) done */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupMetrics {
+
+    private final MetricsRegistry registry;
+
+    private volatile double startedSeconds;
+    private volatile double warmupSeconds;
+    private volatile double readySeconds;
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void started() {
+        startedSeconds = uptimeSeconds();
+        registry.gauge("application_startup_seconds", MetricsRegistry.label("phase", "started"), () -> startedSeconds);
+    }
+
+    public void warmedUp(long nanos) {
+        warmupSeconds = nanos / 1e9;
+        registry.gauge("application_startup_seconds", MetricsRegistry.label("phase", "warmup"), () -> warmupSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ready() {
+        readySeconds = uptimeSeconds();
+        registry.gauge("application_startup_seconds", MetricsRegistry.label("phase", "ready"), () -> readySeconds);
+        log.info("Started in " + startedSeconds + " s, ready for traffic in " + readySeconds + " s (warmup " + warmupSeconds + " s)");
+    }
+
+    private static double uptimeSeconds() {
+        return ManagementFactory.getRuntimeMXBean().getUptime() / 1e3;
+    }
+}
@@ -0,0 +1,40 @@
+package tn.esprit.spring.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/* Times every call of the advised methods. The histogram of a method is resolved once,
+ * afterwards a call costs one map lookup, two nanoTime reads and a few atomic increments. */
+public class TimingInterceptor implements MethodInterceptor {
+
+    private final MetricsRegistry registry;
+    private final String name;
+    private final Function<Method, String> labels;
+    private final ConcurrentMap<Method, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public TimingInterceptor(MetricsRegistry registry, String name, Function<Method, String> labels) {
+        this.registry = registry;
+        this.name = name;
+        this.labels = labels;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        LatencyHistogram histogram = histograms.get(method);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(method, m -> registry.timer(name, labels.apply(m)));
+        }
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+}
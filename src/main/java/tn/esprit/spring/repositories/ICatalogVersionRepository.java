@@ -0,0 +1,18 @@
+package tn.esprit.spring.repositories;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.entities.CatalogVersion;
+
+import java.util.Collection;
+
+public interface ICatalogVersionRepository extends CrudRepository<CatalogVersion, String> {
+
+    /* joins the transaction of the write, so the new version commits with it */
+    @Transactional
+    @Modifying
+    @Query("update CatalogVersion v set v.version = v.version + 1 where v.catalog in ?1")
+    int bump(Collection<String> catalogs);
+}
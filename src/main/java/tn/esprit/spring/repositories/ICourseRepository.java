@@ -1,5 +1,6 @@
 package tn.esprit.spring.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import org.springframework.data.jpa.repository.Query;
@@ -11,6 +12,8 @@ import java.util.List;
 
 public interface ICourseRepository extends JpaRepository<Course, Long> {
 
+    List<Course> findByNumCourseGreaterThanOrderByNumCourseAsc(Long numCourse, Pageable pageable);
+    List<Course> findByTypeCourseAndNumCourseGreaterThanOrderByNumCourseAsc(TypeCourse typeCourse, Long numCourse, Pageable pageable);
 
 
 }
@@ -0,0 +1,31 @@
+package tn.esprit.spring.repositories;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.entities.CourseSeats;
+
+public interface ICourseSeatsRepository extends CrudRepository<CourseSeats, CourseSeats.Key> {
+
+    /* takes a seat while the course week has room and the skier is not registered to it yet. The row lock
+     * serializes the bookings of a course week across the instances until the registration commits. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying(flushAutomatically = true)
+    @Query("update CourseSeats s set s.taken = s.taken + 1 " +
+            "where s.numCourse = ?1 and s.numWeek = ?2 and s.taken < ?4 and not exists (select r.numRegistration from Registration r " +
+            "where r.skier.numSkier = ?3 and r.numWeek = ?2 and r.course.numCourse = ?1)")
+    int take(Long numCourse, Integer numWeek, Long numSkier, int capacity);
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query("update CourseSeats s set s.taken = s.taken - 1 where s.numCourse = ?1 and s.numWeek = ?2 and s.taken > 0")
+    int release(Long numCourse, Integer numWeek);
+
+    /* fails on the primary key when another instance created the row first */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into course_seats (num_course, num_week, taken) values (?1, ?2, ?3)", nativeQuery = true)
+    int create(Long numCourse, Integer numWeek, int taken);
+}
@@ -1,11 +1,32 @@
 package tn.esprit.spring.repositories;
 
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.entities.Support;
+
+import java.util.List;
+import java.util.Optional;
 
 
 
 public interface IInstructorRepository extends JpaRepository<Instructor, Long> {
 
+    @Query("select i.numInstructor, c.numCourse, c.support, c.timeSlot, i.firstName, i.lastName from Instructor i join i.courses c")
+    List<Object[]> findAllCourseAssignments();
+
+    @Query("select distinct i from Instructor i left join fetch i.courses")
+    List<Instructor> findAllWithCourses();
+
+    @Query("select distinct i from Instructor i left join fetch i.courses where i.numInstructor = ?1")
+    Optional<Instructor> findWithCoursesById(Long numInstructor);
+
+    List<Instructor> findByNumInstructorGreaterThanOrderByNumInstructorAsc(Long numInstructor, Pageable pageable);
+
+    @Query("select i from Instructor i where exists (select c.numCourse from Instructor i2 join i2.courses c where i2 = i and c.support = ?2) " +
+            "and not exists (select r.numRegistration from Instructor i3 join i3.courses c3, Registration r " +
+            "where i3 = i and r.course = c3 and r.numWeek = ?1 and c3.timeSlot = ?3) order by i.numInstructor")
+    List<Instructor> findAvailable(int numWeek, Support support, int timeSlot);
 }
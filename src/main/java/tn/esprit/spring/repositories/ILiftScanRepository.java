@@ -0,0 +1,19 @@
+package tn.esprit.spring.repositories;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import tn.esprit.spring.entities.LiftScan;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface ILiftScanRepository extends CrudRepository<LiftScan, Long> {
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select s.numPiste, s.scannedAt from LiftScan s where s.scannedAt > ?1")
+    Stream<Object[]> streamScansSince(LocalDateTime since);
+}
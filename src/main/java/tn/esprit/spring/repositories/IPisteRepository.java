@@ -1,9 +1,15 @@
 package tn.esprit.spring.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import tn.esprit.spring.entities.Color;
 import tn.esprit.spring.entities.Piste;
 
+import java.util.List;
+
 public interface IPisteRepository extends JpaRepository<Piste, Long> {
 
+    List<Piste> findByNumPisteGreaterThanOrderByNumPisteAsc(Long numPiste, Pageable pageable);
+    List<Piste> findByColorAndNumPisteGreaterThanOrderByNumPisteAsc(Color color, Long numPiste, Pageable pageable);
 }
@@ -1,20 +1,25 @@
 package tn.esprit.spring.repositories;
 
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import org.springframework.data.repository.query.Param;
 import tn.esprit.spring.entities.*;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface IRegistrationRepository extends CrudRepository<Registration, Long> {
 
     long countByCourseAndNumWeek(Course course, int numWeek);
-    @Query("select reg.numWeek from Registration reg " +
-            "join Instructor ins " +
-            "on reg.course member ins.courses " +
-            "where ins.numInstructor = :idIns and reg.course.support = :support")
+    /* walks instructor -> courses -> registrations so that each step is an index lookup */
+    @Query("select reg.numWeek from Instructor ins join ins.courses c " +
+            "join Registration reg on reg.course = c " +
+            "where ins.numInstructor = :idIns and c.support = :support")
     List<Integer> numWeeksCourseOfInstructorBySupport(@Param("idIns") Long numInstructor, @Param("support") Support support);
 
     @Query("select count(distinct r) from Registration r " +
@@ -23,6 +28,15 @@ public interface IRegistrationRepository extends CrudRepository<Registration, Lo
 
   //  long countDistinctByNumWeekAndSkier_NumSkierAndCourse_NumCourse(int numWeek, Long numSkier, Long numCourse);
 
+    @Query("select c.numCourse, c.support, r.numWeek, count(r) from Registration r join r.course c " +
+            "group by c.numCourse, c.support, r.numWeek")
+    List<Object[]> countByCourseAndWeek();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select r.numRegistration, r.numWeek, s.numSkier, c.numCourse from Registration r " +
+            "left join r.skier s left join r.course c")
+    Stream<Object[]> streamAllForExport();
+
 
 
 
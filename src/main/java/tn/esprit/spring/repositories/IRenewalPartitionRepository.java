@@ -0,0 +1,11 @@
+package tn.esprit.spring.repositories;
+
+import org.springframework.data.repository.CrudRepository;
+import tn.esprit.spring.entities.RenewalPartition;
+
+import java.util.List;
+
+public interface IRenewalPartitionRepository extends CrudRepository<RenewalPartition, Long> {
+
+    List<RenewalPartition> findByCompletedFalseOrderByNumPartitionAsc();
+}
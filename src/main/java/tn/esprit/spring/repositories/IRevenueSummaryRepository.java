@@ -0,0 +1,9 @@
+package tn.esprit.spring.repositories;
+
+import org.springframework.data.repository.CrudRepository;
+import tn.esprit.spring.entities.RevenueSummary;
+import tn.esprit.spring.entities.TypeSubscription;
+
+public interface IRevenueSummaryRepository extends CrudRepository<RevenueSummary, TypeSubscription> {
+
+}
@@ -1,17 +1,70 @@
 package tn.esprit.spring.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import tn.esprit.spring.entities.Skier;
 import tn.esprit.spring.entities.Subscription;
 import tn.esprit.spring.entities.TypeSubscription;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface ISkierRepository extends JpaRepository<Skier, Long> {
+   /* inner join : the derived query left joins the subscription and has to scan every skier */
+   @Query("select s from Skier s join fetch s.subscription sub where sub.typeSub = ?1")
    List<Skier> findBySubscription_TypeSub(TypeSubscription typeSubscription);
    Skier findBySubscription(Subscription subscription);
 
+   @EntityGraph(attributePaths = "subscription")
+   List<Skier> findByNumSkierGreaterThanOrderByNumSkierAsc(Long numSkier, Pageable pageable);
+   @EntityGraph(attributePaths = "subscription")
+   List<Skier> findBySubscription_TypeSubAndNumSkierGreaterThanOrderByNumSkierAsc(TypeSubscription typeSubscription, Long numSkier, Pageable pageable);
+
+   @Query("select distinct s from Skier s left join fetch s.subscription left join fetch s.registrations")
+   List<Skier> findAllWithRegistrations();
+
+   @Query("select distinct s from Skier s left join fetch s.subscription left join fetch s.registrations " +
+           "where s.numSkier = ?1")
+   Optional<Skier> findWithRegistrationsById(Long numSkier);
+
+   /* the persistence context is cleared so that skiers loaded before the insert are read again */
+   @Modifying(flushAutomatically = true, clearAutomatically = true)
+   @Query(value = "insert into excursion (num_skier, num_piste) select ?1, ?2 from dual " +
+           "where not exists (select 1 from excursion where num_skier = ?1 and num_piste = ?2)", nativeQuery = true)
+   int addExcursion(Long numSkier, Long numPiste);
+
+   @Query("select distinct s from Skier s join fetch s.subscription sub left join fetch s.registrations " +
+           "where sub.typeSub = ?1")
+   List<Skier> findWithRegistrationsBySubscriptionType(TypeSubscription typeSubscription);
+
+   @Query("select s.numSkier, s.dateOfBirth from Skier s where s.numSkier in ?1")
+   List<Object[]> findBirthDatesByIds(Collection<Long> numSkiers);
+
+   @Query("select s.subscription.numSub, s.firstName, s.lastName from Skier s where s.subscription.numSub in ?1")
+   List<Object[]> findNamesBySubscriptionIds(Collection<Long> numSubs);
+
+   /* one row per registration, ordered by skier so that the rows of a skier are consecutive */
+   @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+   @Query("select s.numSkier, s.firstName, s.lastName, s.dateOfBirth, s.city, " +
+           "sub.numSub, sub.typeSub, sub.startDate, sub.endDate, sub.price, " +
+           "r.numRegistration, r.numWeek, c.numCourse " +
+           "from Skier s left join s.subscription sub left join s.registrations r left join r.course c " +
+           "order by s.numSkier")
+   Stream<Object[]> streamAllForExport();
+
+   @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+   @Query("select s.numSkier, s.firstName, s.lastName, s.city from Skier s")
+   Stream<Object[]> streamNames();
+
 
 }
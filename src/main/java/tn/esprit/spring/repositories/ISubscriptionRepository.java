@@ -1,5 +1,6 @@
 package tn.esprit.spring.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
@@ -8,6 +9,7 @@ import tn.esprit.spring.entities.Subscription;
 import tn.esprit.spring.entities.TypeSubscription;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -18,12 +20,34 @@ public interface ISubscriptionRepository extends CrudRepository<Subscription, Lo
 
     List<Subscription> getSubscriptionsByStartDateBetween(LocalDate date1, LocalDate date2);
 
-    @Query("select distinct s from Subscription s where s.endDate <= CURRENT_TIME order by s.endDate")
+    List<Subscription> findByNumSubGreaterThanOrderByNumSubAsc(Long numSub, Pageable pageable);
+    List<Subscription> findByTypeSubAndNumSubGreaterThanOrderByNumSubAsc(TypeSubscription typeSub, Long numSub, Pageable pageable);
+
+    @Query("select distinct s from Subscription s where s.endDate <= CURRENT_DATE order by s.endDate")
     List<Subscription> findDistinctOrderByEndDateAsc();
 
 
+    @Query("select s.numSub, s.endDate from Subscription s where s.endDate > ?1")
+    List<Object[]> findExpiryScheduleAfter(LocalDate after);
+
+    @Query("select s.numSub, s.endDate from Subscription s where s.endDate > ?1 and s.endDate <= ?2")
+    List<Object[]> findExpiryScheduleBetween(LocalDate after, LocalDate upTo);
+
+    @Query("select s.numSub, s.typeSub, s.price from Subscription s where s.numSub in ?1")
+    List<Object[]> findRevenueByIds(Collection<Long> numSubs);
+
+    @Query("select s.typeSub, sum(s.price), count(s) from Subscription s " +
+            "where s.endDate is null or s.endDate > ?1 group by s.typeSub")
+    List<Object[]> activeRevenueByTypeSub(LocalDate today);
+
     @Query("select (sum(s.price))/(count(s)) from Subscription s where s.typeSub = ?1")
     Float recurringRevenueByTypeSubEquals(TypeSubscription typeSub);
 
+    @Query("select min(s.numSub), max(s.numSub) from Subscription s where s.endDate between ?1 and ?2")
+    List<Object[]> findRenewalRange(LocalDate from, LocalDate to);
+
+    @Query("select s from Subscription s where s.numSub > ?1 and s.numSub <= ?2 and s.endDate between ?3 and ?4 order by s.numSub")
+    List<Subscription> findDueForRenewal(Long after, Long upTo, LocalDate from, LocalDate to, Pageable pageable);
+
 
 }
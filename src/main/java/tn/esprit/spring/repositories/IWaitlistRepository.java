@@ -0,0 +1,22 @@
+package tn.esprit.spring.repositories;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.entities.WaitlistEntry;
+import tn.esprit.spring.entities.WaitlistStatus;
+
+import java.util.List;
+
+public interface IWaitlistRepository extends CrudRepository<WaitlistEntry, Long> {
+
+    List<WaitlistEntry> findByStatusOrderByRequestedAtAscNumEntryAsc(WaitlistStatus status);
+
+    /* only a waiting entry can be closed, so a promotion and a cancellation never both succeed */
+    @Transactional
+    @Modifying
+    @Query("update WaitlistEntry e set e.status = ?2, e.numRegistration = ?3 " +
+            "where e.numEntry = ?1 and e.status = tn.esprit.spring.entities.WaitlistStatus.WAITING")
+    int close(Long numEntry, WaitlistStatus status, Long numRegistration);
+}
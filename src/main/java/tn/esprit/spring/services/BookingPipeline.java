@@ -0,0 +1,229 @@
+package tn.esprit.spring.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.dto.BookingOutcome;
+import tn.esprit.spring.dto.BookingTicket;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Registration;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.metrics.BookingMetrics;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.ISkierRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+/* Asynchronous bookings : requests wait in a bounded queue, a few workers drain them in batches,
+ * and take the seats and insert the accepted registrations of a batch in one transaction. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingPipeline {
+
+    private final ISkierRepository skierRepository;
+    private final ICourseRepository courseRepository;
+    private final SeatInventory seatInventory;
+    private final InstructorWeekIndex instructorWeekIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final BookingMetrics bookingMetrics;
+
+    @Value("${registration.async.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${registration.async.workers:4}")
+    private int workerCount;
+
+    @Value("${registration.async.batch-size:200}")
+    private int batchSize;
+
+    @Value("${registration.async.ticket-ttl-ms:600000}")
+    private long ticketTtl;
+
+    private BlockingQueue<BookingTicket> queue;
+    private final ConcurrentMap<String, BookingTicket> tickets = new ConcurrentHashMap<>();
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "booking-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        bookingMetrics.bindQueue(queue::size);
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::drain);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.shutdownNow();
+    }
+
+    /* null when the queue is full */
+    public BookingTicket submit(Registration registration, Long numSkier, Long numCourse) {
+        BookingTicket ticket = new BookingTicket(UUID.randomUUID().toString(), numSkier, numCourse, registration.getNumWeek());
+        tickets.put(ticket.getTicket(), ticket);
+        if (!queue.offer(ticket)) {
+            tickets.remove(ticket.getTicket());
+            return null;
+        }
+        return ticket;
+    }
+
+    public BookingTicket ticket(String ticket) {
+        return tickets.get(ticket);
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeTickets() {
+        long limit = System.currentTimeMillis() - ticketTtl;
+        tickets.values().removeIf(t -> t.getOutcome() != BookingOutcome.PENDING && t.getCompletedAt() < limit);
+    }
+
+    private void complete(BookingTicket ticket, BookingOutcome outcome, Long numRegistration) {
+        ticket.complete(outcome, numRegistration);
+        bookingMetrics.record(outcome, true);
+    }
+
+    private void drain() {
+        List<BookingTicket> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                BookingTicket first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Booking batch failed", e);
+                for (BookingTicket ticket : batch) {
+                    if (ticket.getOutcome() == BookingOutcome.PENDING) {
+                        complete(ticket, BookingOutcome.FAILED, null);
+                    }
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<BookingTicket> batch) {
+        Set<Long> skierIds = new HashSet<>();
+        for (BookingTicket ticket : batch) {
+            skierIds.add(ticket.getNumSkier());
+        }
+        Map<Long, LocalDate> birthDates = new HashMap<>();
+        for (Object[] row : skierRepository.findBirthDatesByIds(skierIds)) {
+            birthDates.put((Long) row[0], (LocalDate) row[1]);
+        }
+
+        List<BookingTicket> valid = new ArrayList<>(batch.size());
+        Map<BookingTicket, Course> courses = new HashMap<>();
+        for (BookingTicket ticket : batch) {
+            try {
+                LocalDate dateOfBirth = birthDates.get(ticket.getNumSkier());
+                Course course = courseRepository.findById(ticket.getNumCourse()).orElse(null);
+                if (dateOfBirth == null || course == null) {
+                    complete(ticket, BookingOutcome.NOT_FOUND, null);
+                } else if (!RegistrationServicesImpl.isAgeAllowed(course, dateOfBirth)) {
+                    complete(ticket, BookingOutcome.WRONG_AGE, null);
+                } else {
+                    valid.add(ticket);
+                    courses.put(ticket, course);
+                }
+            } catch (RuntimeException e) {
+                log.error("Booking " + ticket.getTicket() + " failed", e);
+                complete(ticket, BookingOutcome.FAILED, null);
+            }
+        }
+        if (!valid.isEmpty()) {
+            persist(valid, courses);
+        }
+    }
+
+    /* one transaction for the batch, and one per registration when the batch rolls back,
+     * so that a bad row only fails its own booking. The seats are taken in the same transaction. */
+    private void persist(List<BookingTicket> valid, Map<BookingTicket, Course> courses) {
+        Map<BookingTicket, Inserted> outcomes;
+        try {
+            outcomes = insert(valid, courses);
+        } catch (RuntimeException e) {
+            log.warn("Booking batch of " + valid.size() + " registrations rolled back, inserting them one by one", e);
+            for (BookingTicket ticket : valid) {
+                try {
+                    complete(ticket, courses.get(ticket), insert(Collections.singletonList(ticket), courses).get(ticket));
+                } catch (RuntimeException failure) {
+                    log.error("Booking " + ticket.getTicket() + " rolled back", failure);
+                    complete(ticket, BookingOutcome.FAILED, null);
+                }
+            }
+            return;
+        }
+        for (BookingTicket ticket : valid) {
+            complete(ticket, courses.get(ticket), outcomes.get(ticket));
+        }
+    }
+
+    /* the registration inserted for a ticket, or the outcome that refused it */
+    private Map<BookingTicket, Inserted> insert(List<BookingTicket> tickets, Map<BookingTicket, Course> courses) {
+        Map<BookingTicket, Inserted> outcomes = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (BookingTicket ticket : tickets) {
+                Course course = courses.get(ticket);
+                SeatInventory.Outcome outcome = seatInventory.reserve(course, ticket.getNumWeek(), ticket.getNumSkier());
+                if (outcome != SeatInventory.Outcome.RESERVED) {
+                    outcomes.put(ticket, new Inserted(outcome == SeatInventory.Outcome.FULL ? BookingOutcome.FULL : BookingOutcome.DUPLICATE, null));
+                    continue;
+                }
+                Registration registration = new Registration();
+                registration.setNumWeek(ticket.getNumWeek());
+                registration.setSkier(entityManager.getReference(Skier.class, ticket.getNumSkier()));
+                registration.setCourse(course);
+                entityManager.persist(registration);
+                outcomes.put(ticket, new Inserted(BookingOutcome.ACCEPTED, registration));
+            }
+        });
+        return outcomes;
+    }
+
+    /* the transaction is committed */
+    private void complete(BookingTicket ticket, Course course, Inserted inserted) {
+        if (inserted.getRegistration() == null) {
+            complete(ticket, inserted.getOutcome(), null);
+            return;
+        }
+        complete(ticket, BookingOutcome.ACCEPTED, inserted.getRegistration().getNumRegistration());
+        instructorWeekIndex.registrationAdded(course, ticket.getNumWeek());
+    }
+
+    @lombok.Value
+    private static class Inserted {
+        BookingOutcome outcome;
+        Registration registration;
+    }
+}
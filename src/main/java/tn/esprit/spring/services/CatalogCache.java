@@ -0,0 +1,213 @@
+package tn.esprit.spring.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.entities.CatalogVersion;
+import tn.esprit.spring.metrics.MetricsRegistry;
+import tn.esprit.spring.repositories.ICatalogVersionRepository;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/* Serialized catalogs (pistes, courses, instructors), polled by the mobile apps. The JSON and gzip bytes
+ * are kept until a write bumps the version of the catalog, and the ETag is a hash of the JSON, so it
+ * does not change across restarts nor between instances. The versions live in the catalog_version
+ * table : a write bumps them in its own transaction, and every instance polls them, so a write on
+ * one instance reaches the others within version-check-ms, which also clears their cached entries. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogCache {
+
+    public enum Catalog {
+        PISTES("pistes"), COURSES("courses"), INSTRUCTORS(null);
+
+        /* the Spring cache of single entries of the catalog, cleared with it */
+        private final String entryCache;
+
+        Catalog(String entryCache) {
+            this.entryCache = entryCache;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ICatalogVersionRepository catalogVersionRepository;
+    private final MetricsRegistry registry;
+    private final CacheManager cacheManager;
+
+    private final Map<Catalog, AtomicLong> versions = new EnumMap<>(Catalog.class);
+    private final Map<Catalog, Object> loading = new EnumMap<>(Catalog.class);
+    private final Map<Catalog, Snapshot> snapshots = new EnumMap<>(Catalog.class);
+
+    {
+        for (Catalog catalog : Catalog.values()) {
+            versions.put(catalog, new AtomicLong());
+            loading.put(catalog, new Object());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Catalog catalog : Catalog.values()) {
+            if (!catalogVersionRepository.existsById(catalog.name())) {
+                try {
+                    catalogVersionRepository.save(new CatalogVersion(catalog.name(), 0));
+                } catch (DataIntegrityViolationException e) {
+                    log.debug("Version of catalog " + catalog + " created by another instance");
+                }
+            }
+        }
+        poll();
+    }
+
+    /* versions only grow, a stale read never takes a version back */
+    @Scheduled(fixedDelayString = "${catalog.version-check-ms:2000}")
+    public void poll() {
+        for (CatalogVersion row : catalogVersionRepository.findAll()) {
+            Catalog catalog = Catalog.valueOf(row.getCatalog());
+            AtomicLong version = versions.get(catalog);
+            if (version != null && version.getAndAccumulate(row.getVersion(), Math::max) < row.getVersion()) {
+                clearEntries(catalog);
+            }
+        }
+    }
+
+    /* a single request reloads a stale catalog, the concurrent ones wait for its snapshot */
+    public Snapshot get(Catalog catalog, Supplier<?> loader) {
+        long version = versions.get(catalog).get();
+        Snapshot snapshot = current(catalog);
+        if (snapshot != null && snapshot.version >= version) {
+            return snapshot;
+        }
+        synchronized (loading.get(catalog)) {
+            version = versions.get(catalog).get();
+            snapshot = current(catalog);
+            if (snapshot != null && snapshot.version >= version) {
+                return snapshot;
+            }
+            long loadedVersion = version;
+            /* read-write transaction, so the catalog is read from the primary even when a replica is configured */
+            Snapshot loaded = transactionTemplate.execute(status -> serialize(loadedVersion, loader.get()));
+            registry.counter("catalog_reloads_total", MetricsRegistry.label("catalog", catalog.name().toLowerCase())).increment();
+            synchronized (snapshots) {
+                Snapshot current = snapshots.get(catalog);
+                if (current == null || current.version < loaded.version) {
+                    snapshots.put(catalog, loaded);
+                }
+            }
+            return loaded;
+        }
+    }
+
+    /* The shared versions are bumped with the write, the local ones once it commits, so that a reload
+     * running before the commit is discarded */
+    public void changed(Catalog... catalogs) {
+        List<String> names = new ArrayList<>(catalogs.length);
+        for (Catalog catalog : catalogs) {
+            names.add(catalog.name());
+        }
+        catalogVersionRepository.bump(names);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    poll();
+                }
+            });
+        } else {
+            poll();
+        }
+    }
+
+    private void clearEntries(Catalog catalog) {
+        Cache cache = catalog.entryCache == null ? null : cacheManager.getCache(catalog.entryCache);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private Snapshot current(Catalog catalog) {
+        synchronized (snapshots) {
+            return snapshots.get(catalog);
+        }
+    }
+
+    private Snapshot serialize(long version, Object catalog) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(catalog);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            return new Snapshot(version, "\"" + hash(json) + "\"", json, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Catalog not serializable", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String hash(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Snapshot {
+        private final long version;
+        private final String etag;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        /* the gzip bytes are another representation, so they get their own strong ETag */
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+
+        /* If-None-Match compares weakly, W/ prefixes are ignored */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag) || candidate.equals(gzipEtag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
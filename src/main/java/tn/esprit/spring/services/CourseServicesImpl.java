@@ -1,7 +1,12 @@
 package tn.esprit.spring.services;
 
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.dto.CursorPage;
 import tn.esprit.spring.entities.Course;
 import tn.esprit.spring.entities.TypeCourse;
 import tn.esprit.spring.repositories.ICourseRepository;
@@ -13,25 +18,66 @@ public class CourseServicesImpl implements  ICourseServices{
 
     private ICourseRepository courseRepository;
 
+    private InstructorWeekIndex instructorWeekIndex;
+
+    private Waitlist waitlist;
+
+    private CatalogCache catalogCache;
+
     @Override
+    @Transactional(readOnly = true)
     public List<Course> retrieveAllCourses() {
         return courseRepository.findAll();
     }
 
     @Override
+    public CatalogCache.Snapshot retrieveCoursesCatalog() {
+        return catalogCache.get(CatalogCache.Catalog.COURSES, courseRepository::findAll);
+    }
+
+    @Override
+    @Transactional
     public Course addCourse(Course course) {
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        instructorWeekIndex.courseSaved(saved);
+        catalogCache.changed(CatalogCache.Catalog.COURSES);
+        return saved;
     }
 
     @Override
+    @Transactional
     public Course updateCourse(Course course) {
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        instructorWeekIndex.courseSaved(saved);
+        /* the instructors catalog lists their courses */
+        catalogCache.changed(CatalogCache.Catalog.COURSES, CatalogCache.Catalog.INSTRUCTORS);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                waitlist.courseChanged(saved.getNumCourse());
+            }
+        });
+        return saved;
     }
 
+    /* the bookings read the course from the repository, this copy is only serialized. The cache is
+     * cleared by the CatalogCache when the version of the courses moves, on any instance */
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "courses", unless = "#result == null")
     public Course retrieveCourse(Long numCourse) {
         return courseRepository.findById(numCourse).orElse(null);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Course> retrieveCoursesPage(String cursor, int size, TypeCourse typeCourse) {
+        long after = CursorPage.decode(cursor);
+        List<Course> rows = typeCourse == null
+                ? courseRepository.findByNumCourseGreaterThanOrderByNumCourseAsc(after, CursorPage.limitOf(size))
+                : courseRepository.findByTypeCourseAndNumCourseGreaterThanOrderByNumCourseAsc(typeCourse, after, CursorPage.limitOf(size));
+        return CursorPage.of(rows, size, Course::getNumCourse);
+    }
+
 
 }
@@ -0,0 +1,136 @@
+package tn.esprit.spring.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+import tn.esprit.spring.repositories.ISkierRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/* NDJSON exports read scalar projections through a forward-only cursor, so no entity
+ * is ever attached to the persistence context and the heap stays flat whatever the row count. */
+@Slf4j
+@AllArgsConstructor
+@Service
+public class ExportServicesImpl implements IExportServices {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private ISkierRepository skierRepository;
+
+    private IRegistrationRepository registrationRepository;
+
+    private ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportSkiers(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Object[]> rows = skierRepository.streamAllForExport();
+             JsonGenerator json = newGenerator(out)) {
+            Long current = null;
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                if (!row[0].equals(current)) {
+                    if (current != null) {
+                        endSkier(json);
+                    }
+                    startSkier(json, row);
+                    current = (Long) row[0];
+                    if (++count % FLUSH_EVERY == 0) {
+                        json.flush();
+                    }
+                }
+                if (row[10] != null) {
+                    json.writeStartObject();
+                    json.writeNumberField("numRegistration", (Long) row[10]);
+                    json.writeNumberField("numWeek", (Integer) row[11]);
+                    writeNullableNumber(json, "numCourse", (Long) row[12]);
+                    json.writeEndObject();
+                }
+            }
+            if (current != null) {
+                endSkier(json);
+            }
+        }
+        log.info("Skier export : " + count + " skiers written");
+        return count;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportRegistrations(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Object[]> rows = registrationRepository.streamAllForExport();
+             JsonGenerator json = newGenerator(out)) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                json.writeStartObject();
+                json.writeNumberField("numRegistration", (Long) row[0]);
+                json.writeNumberField("numWeek", (Integer) row[1]);
+                writeNullableNumber(json, "numSkier", (Long) row[2]);
+                writeNullableNumber(json, "numCourse", (Long) row[3]);
+                json.writeEndObject();
+                json.writeRaw('\n');
+                if (++count % FLUSH_EVERY == 0) {
+                    json.flush();
+                }
+            }
+        }
+        log.info("Registration export : " + count + " registrations written");
+        return count;
+    }
+
+    private JsonGenerator newGenerator(OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        return json;
+    }
+
+    private void startSkier(JsonGenerator json, Object[] row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("numSkier", (Long) row[0]);
+        json.writeStringField("firstName", (String) row[1]);
+        json.writeStringField("lastName", (String) row[2]);
+        json.writeStringField("dateOfBirth", row[3] == null ? null : row[3].toString());
+        json.writeStringField("city", (String) row[4]);
+        if (row[5] != null) {
+            json.writeObjectFieldStart("subscription");
+            json.writeNumberField("numSub", (Long) row[5]);
+            json.writeStringField("typeSub", row[6] == null ? null : row[6].toString());
+            json.writeStringField("startDate", row[7] == null ? null : row[7].toString());
+            json.writeStringField("endDate", row[8] == null ? null : row[8].toString());
+            if (row[9] == null) {
+                json.writeNullField("price");
+            } else {
+                json.writeNumberField("price", (Float) row[9]);
+            }
+            json.writeEndObject();
+        }
+        json.writeArrayFieldStart("registrations");
+    }
+
+    private void endSkier(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private void writeNullableNumber(JsonGenerator json, String field, Long value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+}
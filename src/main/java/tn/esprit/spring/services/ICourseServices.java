@@ -1,5 +1,6 @@
 package tn.esprit.spring.services;
 
+import tn.esprit.spring.dto.CursorPage;
 import tn.esprit.spring.entities.Course;
 import tn.esprit.spring.entities.TypeCourse;
 
@@ -9,11 +10,15 @@ public interface ICourseServices {
 
     List<Course> retrieveAllCourses();
 
+    CatalogCache.Snapshot retrieveCoursesCatalog();
+
     Course  addCourse(Course  course);
 
     Course updateCourse(Course course);
 
     Course retrieveCourse(Long numCourse);
 
+    CursorPage<Course> retrieveCoursesPage(String cursor, int size, TypeCourse typeCourse);
+
 
 }
@@ -0,0 +1,11 @@
+package tn.esprit.spring.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IExportServices {
+
+    long exportSkiers(OutputStream out) throws IOException;
+
+    long exportRegistrations(OutputStream out) throws IOException;
+}
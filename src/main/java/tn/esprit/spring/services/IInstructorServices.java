@@ -1,5 +1,8 @@
 package tn.esprit.spring.services;
 
+import tn.esprit.spring.dto.AvailableInstructor;
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.InstructorDTO;
 import tn.esprit.spring.entities.Course;
 import tn.esprit.spring.entities.Instructor;
 import tn.esprit.spring.entities.Support;
@@ -8,14 +11,20 @@ import java.util.List;
 
 public interface IInstructorServices {
 
-    Instructor addInstructor(Instructor instructor);
+    InstructorDTO addInstructor(Instructor instructor);
 
-    List<Instructor> retrieveAllInstructors();
+    List<InstructorDTO> retrieveAllInstructors();
 
-    Instructor updateInstructor(Instructor instructor);
+    CatalogCache.Snapshot retrieveInstructorsCatalog();
 
-    Instructor retrieveInstructor(Long numInstructor);
+    InstructorDTO updateInstructor(Instructor instructor);
 
-    Instructor addInstructorAndAssignToCourse(Instructor instructor, Long numCourse);
+    InstructorDTO retrieveInstructor(Long numInstructor);
+
+    InstructorDTO addInstructorAndAssignToCourse(Instructor instructor, Long numCourse);
+
+    CursorPage<InstructorDTO> retrieveInstructorsPage(String cursor, int size);
+
+    List<AvailableInstructor> retrieveAvailableInstructors(int numWeek, Support support, int timeSlot);
 
 }
@@ -0,0 +1,11 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.dto.LiftScanEvent;
+import tn.esprit.spring.dto.LiftScanReceipt;
+
+import java.util.List;
+
+public interface ILiftScanServices {
+
+    LiftScanReceipt ingest(List<LiftScanEvent> events);
+}
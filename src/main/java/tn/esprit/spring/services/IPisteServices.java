@@ -1,5 +1,8 @@
 package tn.esprit.spring.services;
 
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.PisteTrafficDTO;
+import tn.esprit.spring.entities.Color;
 import tn.esprit.spring.entities.Piste;
 
 import java.util.List;
@@ -8,9 +11,15 @@ public interface IPisteServices {
 
     List<Piste> retrieveAllPistes();
 
+    CatalogCache.Snapshot retrievePistesCatalog();
+
     Piste  addPiste(Piste  piste);
 
     void removePiste (Long numPiste);
 
     Piste retrievePiste (Long numPiste);
+
+    CursorPage<Piste> retrievePistesPage(String cursor, int size, Color color);
+
+    List<PisteTrafficDTO> retrieveBusiestPistes(int minutes, Color color, int top);
 }
@@ -1,5 +1,7 @@
 package tn.esprit.spring.services;
 
+import tn.esprit.spring.dto.BookingTicket;
+import tn.esprit.spring.dto.WaitlistPosition;
 import tn.esprit.spring.entities.*;
 
 import java.util.List;
@@ -9,6 +11,12 @@ public interface IRegistrationServices {
 	Registration addRegistrationAndAssignToSkier(Registration registration, Long numSkier);
 	Registration assignRegistrationToCourse(Long numRegistration, Long numCourse);
 	Registration addRegistrationAndAssignToSkierAndCourse(Registration registration, Long numSkieur, Long numCours);
+	void removeRegistration(Long numRegistration);
+	WaitlistPosition joinWaitlist(Long numSkieur, Long numCours, int numWeek);
+	WaitlistPosition retrieveWaitlistPosition(Long numEntry);
+	WaitlistPosition leaveWaitlist(Long numEntry);
+	BookingTicket submitRegistration(Registration registration, Long numSkieur, Long numCours);
+	BookingTicket retrieveBookingTicket(String ticket);
 	List<Integer> numWeeksCourseOfInstructorBySupport(Long numInstructor, Support support);
 }
 
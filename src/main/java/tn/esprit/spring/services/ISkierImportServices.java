@@ -0,0 +1,12 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.dto.ImportFormat;
+import tn.esprit.spring.dto.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ISkierImportServices {
+
+    ImportReport importSkiers(InputStream input, ImportFormat format) throws IOException;
+}
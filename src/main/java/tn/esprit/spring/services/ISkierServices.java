@@ -1,5 +1,8 @@
 package tn.esprit.spring.services;
 
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.SkierDTO;
+import tn.esprit.spring.dto.SkierSearchResult;
 import tn.esprit.spring.entities.Skier;
 import tn.esprit.spring.entities.TypeSubscription;
 
@@ -7,21 +10,25 @@ import java.util.List;
 
 public interface ISkierServices {
 
-	List<Skier> retrieveAllSkiers();
+	List<SkierDTO> retrieveAllSkiers();
 
-	Skier  addSkier(Skier  skier);
+	SkierDTO addSkier(Skier  skier);
 
-	Skier assignSkierToSubscription(Long numSkier, Long numSubscription);
+	SkierDTO assignSkierToSubscription(Long numSkier, Long numSubscription);
 
-	Skier addSkierAndAssignToCourse(Skier skier, Long numCourse);
+	SkierDTO addSkierAndAssignToCourse(Skier skier, Long numCourse);
 
 	void removeSkier (Long numSkier);
 
-	Skier retrieveSkier (Long numSkier);
+	SkierDTO retrieveSkier (Long numSkier);
 
 
-	Skier assignSkierToPiste(Long numSkieur, Long numPiste);
+	SkierDTO assignSkierToPiste(Long numSkieur, Long numPiste);
 
-	List<Skier> retrieveSkiersBySubscriptionType(TypeSubscription typeSubscription);
+	List<SkierDTO> retrieveSkiersBySubscriptionType(TypeSubscription typeSubscription);
+
+	CursorPage<SkierDTO> retrieveSkiersPage(String cursor, int size, TypeSubscription typeSubscription);
+
+	List<SkierSearchResult> searchSkiers(String query, int limit);
 
 }
@@ -4,6 +4,9 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Set;
 
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.RenewalReport;
+import tn.esprit.spring.dto.RevenueReport;
 import tn.esprit.spring.entities.Subscription;
 import tn.esprit.spring.entities.TypeSubscription;
 
@@ -19,5 +22,13 @@ public interface ISubscriptionServices {
 
 	List<Subscription> retrieveSubscriptionsByDates(LocalDate startDate, LocalDate endDate);
 
+	CursorPage<Subscription> retrieveSubscriptionsPage(String cursor, int size, TypeSubscription type);
+
 	void retrieveSubscriptions();
+
+	RevenueReport retrieveRevenue();
+
+	RenewalReport startRenewal(Integer windowDays);
+
+	RenewalReport retrieveRenewal();
 }
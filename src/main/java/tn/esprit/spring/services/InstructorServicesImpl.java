@@ -2,14 +2,20 @@ package tn.esprit.spring.services;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.dto.AvailableInstructor;
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.InstructorDTO;
 import tn.esprit.spring.entities.Course;
 import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.entities.Support;
 import tn.esprit.spring.repositories.ICourseRepository;
 import tn.esprit.spring.repositories.IInstructorRepository;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Service
@@ -17,35 +23,73 @@ public class InstructorServicesImpl implements IInstructorServices{
 
     private IInstructorRepository instructorRepository;
     private ICourseRepository courseRepository;
+    private InstructorWeekIndex instructorWeekIndex;
+    private CatalogCache catalogCache;
 
     @Override
-    public Instructor addInstructor(Instructor instructor) {
-        return instructorRepository.save(instructor);
+    @Transactional
+    public InstructorDTO addInstructor(Instructor instructor) {
+        Instructor saved = instructorRepository.save(instructor);
+        instructorWeekIndex.instructorSaved(saved);
+        catalogCache.changed(CatalogCache.Catalog.INSTRUCTORS);
+        return InstructorDTO.from(saved);
     }
 
     @Override
-    public List<Instructor> retrieveAllInstructors() {
-        return instructorRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<InstructorDTO> retrieveInstructorsPage(String cursor, int size) {
+        List<Instructor> rows = instructorRepository.findByNumInstructorGreaterThanOrderByNumInstructorAsc(
+                CursorPage.decode(cursor), CursorPage.limitOf(size));
+        return CursorPage.of(rows, size, Instructor::getNumInstructor).map(InstructorDTO::from);
     }
 
     @Override
-    public Instructor updateInstructor(Instructor instructor) {
-        return instructorRepository.save(instructor);
+    @Transactional(readOnly = true)
+    public List<InstructorDTO> retrieveAllInstructors() {
+        return InstructorDTO.from(instructorRepository.findAllWithCourses());
     }
 
     @Override
-    public Instructor retrieveInstructor(Long numInstructor) {
-        return instructorRepository.findById(numInstructor).orElse(null);
+    public CatalogCache.Snapshot retrieveInstructorsCatalog() {
+        return catalogCache.get(CatalogCache.Catalog.INSTRUCTORS, () -> InstructorDTO.from(instructorRepository.findAllWithCourses()));
     }
 
     @Override
-    public Instructor addInstructorAndAssignToCourse(Instructor instructor, Long numCourse) {
+    @Transactional
+    public InstructorDTO updateInstructor(Instructor instructor) {
+        Instructor saved = instructorRepository.save(instructor);
+        instructorWeekIndex.instructorSaved(saved);
+        catalogCache.changed(CatalogCache.Catalog.INSTRUCTORS);
+        return InstructorDTO.from(saved);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public InstructorDTO retrieveInstructor(Long numInstructor) {
+        return instructorRepository.findWithCoursesById(numInstructor).map(InstructorDTO::from).orElse(null);
+    }
+
+    @Override
+    @Transactional
+    public InstructorDTO addInstructorAndAssignToCourse(Instructor instructor, Long numCourse) {
         Course course = courseRepository.findById(numCourse).orElse(null);
         Set<Course> courseSet = new HashSet<>();
         courseSet.add(course);
         instructor.setCourses(courseSet);
-        return instructorRepository.save(instructor);
+        Instructor saved = instructorRepository.save(instructor);
+        instructorWeekIndex.instructorSaved(saved);
+        catalogCache.changed(CatalogCache.Catalog.INSTRUCTORS);
+        return InstructorDTO.from(saved);
     }
 
-
+    @Override
+    @Transactional(readOnly = true)
+    public List<AvailableInstructor> retrieveAvailableInstructors(int numWeek, Support support, int timeSlot) {
+        List<AvailableInstructor> available = instructorWeekIndex.availableInstructors(numWeek, support, timeSlot);
+        if (available == null) {
+            return instructorRepository.findAvailable(numWeek, support, timeSlot).stream()
+                    .map(AvailableInstructor::from).collect(Collectors.toList());
+        }
+        return available;
+    }
 }
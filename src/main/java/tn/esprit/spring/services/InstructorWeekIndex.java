@@ -0,0 +1,220 @@
+package tn.esprit.spring.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.dto.AvailableInstructor;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.repositories.IInstructorRepository;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/* Weeks with at least one registration, as a 64 bit mask per course, and the courses of each
+ * instructor. The weeks of an instructor for a support are the OR of the masks of the instructor's courses.
+ * Each instructor also has an availability matrix : for every time slot, the mask of the weeks when one
+ * of the instructor's courses in that slot has registrations. It is rebuilt whenever one of those masks
+ * changes and replaced as a whole, so lookups read it without locking. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InstructorWeekIndex {
+
+    private static final int MAX_WEEK = 63;
+
+    private final IInstructorRepository instructorRepository;
+    private final IRegistrationRepository registrationRepository;
+
+    private final ConcurrentMap<Long, CourseWeeks> courses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> instructorCourses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> courseInstructors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Availability> availabilities = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        courses.clear();
+        instructorCourses.clear();
+        courseInstructors.clear();
+        availabilities.clear();
+        Map<Long, String[]> names = new HashMap<>();
+        for (Object[] row : instructorRepository.findAllCourseAssignments()) {
+            CourseWeeks weeks = courseWeeks((Long) row[1]);
+            weeks.support = (Support) row[2];
+            weeks.timeSlot = (Integer) row[3];
+            assign((Long) row[0], (Long) row[1]);
+            names.put((Long) row[0], new String[]{(String) row[4], (String) row[5]});
+        }
+        for (Object[] row : registrationRepository.countByCourseAndWeek()) {
+            CourseWeeks weeks = courseWeeks((Long) row[0]);
+            weeks.support = (Support) row[1];
+            weeks.add((Integer) row[2], ((Number) row[3]).intValue());
+        }
+        for (Map.Entry<Long, String[]> instructor : names.entrySet()) {
+            refresh(instructor.getKey(), instructor.getValue()[0], instructor.getValue()[1]);
+        }
+        log.info("Instructor week index loaded : " + instructorCourses.size() + " instructors, " + courses.size() + " courses");
+    }
+
+    public void registrationAdded(Course course, int numWeek) {
+        if (course != null && courseWeeks(course.getNumCourse()).add(numWeek, 1)) {
+            refreshInstructorsOf(course.getNumCourse());
+        }
+    }
+
+    public void registrationRemoved(Course course, int numWeek) {
+        if (course != null && courseWeeks(course.getNumCourse()).add(numWeek, -1)) {
+            refreshInstructorsOf(course.getNumCourse());
+        }
+    }
+
+    public void courseSaved(Course course) {
+        if (course != null && course.getNumCourse() != null) {
+            CourseWeeks weeks = courseWeeks(course.getNumCourse());
+            weeks.support = course.getSupport();
+            weeks.timeSlot = course.getTimeSlot();
+            refreshInstructorsOf(course.getNumCourse());
+        }
+    }
+
+    public synchronized void instructorSaved(Instructor instructor) {
+        Set<Long> previous = instructorCourses.remove(instructor.getNumInstructor());
+        if (previous != null) {
+            for (Long numCourse : previous) {
+                courseInstructors.getOrDefault(numCourse, Collections.emptySet()).remove(instructor.getNumInstructor());
+            }
+        }
+        instructorCourses.put(instructor.getNumInstructor(), ConcurrentHashMap.newKeySet());
+        if (instructor.getCourses() != null) {
+            for (Course course : instructor.getCourses()) {
+                if (course != null) {
+                    courseSaved(course);
+                    assign(instructor.getNumInstructor(), course.getNumCourse());
+                }
+            }
+        }
+        refresh(instructor.getNumInstructor(), instructor.getFirstName(), instructor.getLastName());
+    }
+
+    /* sorted distinct weeks, or null when a week of the instructor does not fit in the masks */
+    public List<Integer> weeksOf(Long numInstructor, Support support) {
+        long mask = 0;
+        for (Long numCourse : instructorCourses.getOrDefault(numInstructor, Collections.emptySet())) {
+            CourseWeeks weeks = courses.get(numCourse);
+            if (weeks == null || weeks.support != support) {
+                continue;
+            }
+            if (weeks.outOfRange > 0) {
+                return null;
+            }
+            mask |= weeks.mask;
+        }
+        List<Integer> result = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            result.add(Long.numberOfTrailingZeros(mask));
+            mask &= mask - 1;
+        }
+        return result;
+    }
+
+    /* instructors teaching the support with no registration in that time slot and week,
+     * or null when the week does not fit in the masks */
+    public List<AvailableInstructor> availableInstructors(int numWeek, Support support, int timeSlot) {
+        if (numWeek < 0 || numWeek > MAX_WEEK) {
+            return null;
+        }
+        long supportBit = 1L << support.ordinal();
+        long weekBit = 1L << numWeek;
+        List<AvailableInstructor> result = new ArrayList<>();
+        for (Availability availability : availabilities.values()) {
+            if ((availability.supports & supportBit) != 0 && (availability.busyWeeks(timeSlot) & weekBit) == 0) {
+                result.add(availability.instructor);
+            }
+        }
+        result.sort(Comparator.comparing(AvailableInstructor::getNumInstructor));
+        return result;
+    }
+
+    private void assign(Long numInstructor, Long numCourse) {
+        instructorCourses.computeIfAbsent(numInstructor, i -> ConcurrentHashMap.newKeySet()).add(numCourse);
+        courseInstructors.computeIfAbsent(numCourse, c -> ConcurrentHashMap.newKeySet()).add(numInstructor);
+    }
+
+    private void refreshInstructorsOf(Long numCourse) {
+        Set<Long> instructors = courseInstructors.get(numCourse);
+        if (instructors != null) {
+            for (Long numInstructor : instructors) {
+                Availability current = availabilities.get(numInstructor);
+                if (current != null) {
+                    refresh(numInstructor, current.instructor.getFirstName(), current.instructor.getLastName());
+                }
+            }
+        }
+    }
+
+    /* serialized so that the last refresh of an instructor sees every mask change before it */
+    private synchronized void refresh(Long numInstructor, String firstName, String lastName) {
+        long supports = 0;
+        long[] busy = new long[0];
+        for (Long numCourse : instructorCourses.getOrDefault(numInstructor, Collections.emptySet())) {
+            CourseWeeks weeks = courses.get(numCourse);
+            if (weeks == null) {
+                continue;
+            }
+            if (weeks.support != null) {
+                supports |= 1L << weeks.support.ordinal();
+            }
+            if (weeks.timeSlot >= 0) {
+                if (weeks.timeSlot >= busy.length) {
+                    busy = Arrays.copyOf(busy, weeks.timeSlot + 1);
+                }
+                busy[weeks.timeSlot] |= weeks.mask;
+            }
+        }
+        availabilities.put(numInstructor, new Availability(new AvailableInstructor(numInstructor, firstName, lastName), supports, busy));
+    }
+
+    private CourseWeeks courseWeeks(Long numCourse) {
+        return courses.computeIfAbsent(numCourse, c -> new CourseWeeks());
+    }
+
+    private static class CourseWeeks {
+        volatile Support support;
+        volatile int timeSlot;
+        volatile long mask;
+        volatile int outOfRange;
+        final int[] counts = new int[MAX_WEEK + 1];
+
+        /* true when the mask changed */
+        synchronized boolean add(int numWeek, int delta) {
+            if (numWeek < 0 || numWeek > MAX_WEEK) {
+                outOfRange += delta;
+                return false;
+            }
+            counts[numWeek] += delta;
+            long previous = mask;
+            mask = counts[numWeek] > 0 ? mask | (1L << numWeek) : mask & ~(1L << numWeek);
+            return mask != previous;
+        }
+    }
+
+    private static class Availability {
+        final AvailableInstructor instructor;
+        final long supports;
+        final long[] busy;
+
+        Availability(AvailableInstructor instructor, long supports, long[] busy) {
+            this.instructor = instructor;
+            this.supports = supports;
+            this.busy = busy;
+        }
+
+        long busyWeeks(int timeSlot) {
+            return timeSlot >= 0 && timeSlot < busy.length ? busy[timeSlot] : 0;
+        }
+    }
+}
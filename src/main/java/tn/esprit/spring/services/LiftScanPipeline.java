@@ -0,0 +1,136 @@
+package tn.esprit.spring.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.dto.LiftScanEvent;
+import tn.esprit.spring.entities.LiftScan;
+import tn.esprit.spring.metrics.MetricsRegistry;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Lift scans wait in a bounded buffer that the gates never block on, a single writer inserts them
+ * in batches. A failed batch is kept and retried with a growing delay, the buffer absorbs the
+ * scans arriving meanwhile and refuses new ones once full. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LiftScanPipeline {
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final MetricsRegistry metricsRegistry;
+    private final PisteTraffic pisteTraffic;
+
+    @Value("${liftscan.buffer-capacity:100000}")
+    private int bufferCapacity;
+
+    @Value("${liftscan.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${liftscan.max-retry-delay-ms:5000}")
+    private long maxRetryDelay;
+
+    private BlockingQueue<LiftScanEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+    private LongAdder accepted;
+    private LongAdder rejected;
+    private LongAdder written;
+    private LongAdder failedWrites;
+
+    @PostConstruct
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        accepted = metricsRegistry.counter("liftscan_events_total", MetricsRegistry.label("outcome", "accepted"));
+        rejected = metricsRegistry.counter("liftscan_events_total", MetricsRegistry.label("outcome", "rejected"));
+        written = metricsRegistry.counter("liftscan_events_total", MetricsRegistry.label("outcome", "written"));
+        failedWrites = metricsRegistry.counter("liftscan_failed_writes_total", "");
+        metricsRegistry.gauge("liftscan_buffer_pending", "", buffer::size);
+        running = true;
+        writer = new Thread(this::drain, "lift-scan-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /* flushes what is still buffered before the context closes */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(10000);
+    }
+
+    /* false when the buffer is full */
+    public boolean offer(LiftScanEvent event) {
+        if (buffer.offer(event)) {
+            accepted.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public int pending() {
+        return buffer.size();
+    }
+
+    private void drain() {
+        List<LiftScanEvent> batch = new ArrayList<>(batchSize);
+        long retryDelay = 0;
+        while (running || !buffer.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    LiftScanEvent first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - 1);
+                }
+                write(batch);
+                written.add(batch.size());
+                for (LiftScanEvent event : batch) {
+                    pisteTraffic.record(event.getNumPiste(), event.getScannedAt());
+                }
+                batch.clear();
+                retryDelay = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                failedWrites.increment();
+                if (!running) {
+                    log.error("Dropping " + (batch.size() + buffer.size()) + " lift scans at shutdown", e);
+                    return;
+                }
+                retryDelay = retryDelay == 0 ? 100 : Math.min(retryDelay * 2, maxRetryDelay);
+                log.warn("Writing " + batch.size() + " lift scans failed, retrying in " + retryDelay + " ms : " + e.getMessage());
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /* entities are created for every attempt, a rolled back persist leaves its identifier behind */
+    private void write(List<LiftScanEvent> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (LiftScanEvent event : batch) {
+                entityManager.persist(new LiftScan(null, event.getNumSkier(), event.getNumPiste(), event.getScannedAt()));
+            }
+        });
+    }
+}
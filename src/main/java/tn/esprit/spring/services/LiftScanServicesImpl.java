@@ -0,0 +1,41 @@
+package tn.esprit.spring.services;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import tn.esprit.spring.dto.LiftScanEvent;
+import tn.esprit.spring.dto.LiftScanReceipt;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@AllArgsConstructor
+@Service
+public class LiftScanServicesImpl implements ILiftScanServices {
+
+    private LiftScanPipeline liftScanPipeline;
+
+    @Override
+    public LiftScanReceipt ingest(List<LiftScanEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        int accepted = 0;
+        int invalid = 0;
+        for (int i = 0; i < events.size(); i++) {
+            LiftScanEvent event = events.get(i);
+            if (event == null || event.getNumSkier() == null || event.getNumPiste() == null) {
+                invalid++;
+                continue;
+            }
+            if (event.getScannedAt() == null) {
+                event.setScannedAt(now);
+            } else if (PisteTraffic.isFuture(event.getScannedAt(), now)) {
+                invalid++;
+                continue;
+            }
+            if (!liftScanPipeline.offer(event)) {
+                return new LiftScanReceipt(accepted, invalid, events.size() - i);
+            }
+            accepted++;
+        }
+        return new LiftScanReceipt(accepted, invalid, 0);
+    }
+}
@@ -1,7 +1,12 @@
 package tn.esprit.spring.services;
 
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.PisteTrafficDTO;
+import tn.esprit.spring.entities.Color;
 import tn.esprit.spring.entities.Piste;
 import tn.esprit.spring.repositories.IPisteRepository;
 
@@ -12,23 +17,58 @@ public class PisteServicesImpl implements  IPisteServices{
 
     private IPisteRepository pisteRepository;
 
+    private PisteTraffic pisteTraffic;
+
+    private CatalogCache catalogCache;
+
     @Override
+    @Transactional(readOnly = true)
     public List<Piste> retrieveAllPistes() {
         return pisteRepository.findAll();
     }
 
     @Override
+    public CatalogCache.Snapshot retrievePistesCatalog() {
+        return catalogCache.get(CatalogCache.Catalog.PISTES, pisteRepository::findAll);
+    }
+
+    @Override
+    @Transactional
     public Piste addPiste(Piste piste) {
-        return pisteRepository.save(piste);
+        Piste saved = pisteRepository.save(piste);
+        pisteTraffic.pisteSaved(saved);
+        catalogCache.changed(CatalogCache.Catalog.PISTES);
+        return saved;
     }
 
     @Override
+    @Transactional
     public void removePiste(Long numPiste) {
         pisteRepository.deleteById(numPiste);
+        pisteTraffic.pisteRemoved(numPiste);
+        catalogCache.changed(CatalogCache.Catalog.PISTES);
     }
 
+    /* cleared by the CatalogCache when the version of the pistes moves, on any instance */
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "pistes", unless = "#result == null")
     public Piste retrievePiste(Long numPiste) {
         return pisteRepository.findById(numPiste).orElse(null);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Piste> retrievePistesPage(String cursor, int size, Color color) {
+        long after = CursorPage.decode(cursor);
+        List<Piste> rows = color == null
+                ? pisteRepository.findByNumPisteGreaterThanOrderByNumPisteAsc(after, CursorPage.limitOf(size))
+                : pisteRepository.findByColorAndNumPisteGreaterThanOrderByNumPisteAsc(color, after, CursorPage.limitOf(size));
+        return CursorPage.of(rows, size, Piste::getNumPiste);
+    }
+
+    @Override
+    public List<PisteTrafficDTO> retrieveBusiestPistes(int minutes, Color color, int top) {
+        return pisteTraffic.busiest(minutes, color, top);
+    }
 }
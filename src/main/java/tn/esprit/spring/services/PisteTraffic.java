@@ -0,0 +1,158 @@
+package tn.esprit.spring.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.dto.PisteTrafficDTO;
+import tn.esprit.spring.entities.Color;
+import tn.esprit.spring.entities.Piste;
+import tn.esprit.spring.repositories.ILiftScanRepository;
+import tn.esprit.spring.repositories.IPisteRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/* Scans per piste over the last hour, in a ring of one minute buckets per piste. A bucket is
+ * reused once its minute leaves the window, so the memory only depends on the number of pistes.
+ * Rebuilt from the last hour of lift scans at startup, then fed by the lift scan writer. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PisteTraffic {
+
+    public static final int WINDOW_MINUTES = 60;
+    /* gate clocks running ahead by more than this are not trusted */
+    public static final int MAX_CLOCK_SKEW_SECONDS = 60;
+
+    private final IPisteRepository pisteRepository;
+    private final ILiftScanRepository liftScanRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentMap<Long, Ring> rings = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        rings.clear();
+        for (Piste piste : pisteRepository.findAll()) {
+            pisteSaved(piste);
+        }
+        LocalDateTime since = LocalDateTime.now().minusMinutes(WINDOW_MINUTES);
+        long scans = transactionTemplate.execute(status -> {
+            long count = 0;
+            try (Stream<Object[]> rows = liftScanRepository.streamScansSince(since)) {
+                Iterator<Object[]> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Object[] row = iterator.next();
+                    record((Long) row[0], (LocalDateTime) row[1]);
+                    count++;
+                }
+            }
+            return count;
+        });
+        log.info("Piste traffic loaded : " + scans + " scans on " + rings.size() + " pistes");
+    }
+
+    public void pisteSaved(Piste piste) {
+        rings.computeIfAbsent(piste.getNumPiste(), Ring::new).describe(piste.getNamePiste(), piste.getColor());
+    }
+
+    public void pisteRemoved(Long numPiste) {
+        rings.remove(numPiste);
+    }
+
+    public static boolean isFuture(LocalDateTime scannedAt, LocalDateTime now) {
+        return scannedAt.isAfter(now.plusSeconds(MAX_CLOCK_SKEW_SECONDS));
+    }
+
+    /* Scans of unknown pistes, scans older than the window and scans too far in the future are ignored.
+     * A scan slightly ahead counts in the current minute, a later minute would evict one of the window. */
+    public void record(Long numPiste, LocalDateTime scannedAt) {
+        Ring ring = rings.get(numPiste);
+        if (ring == null || isFuture(scannedAt, LocalDateTime.now())) {
+            return;
+        }
+        long now = currentMinute();
+        long minute = Math.min(minuteOf(scannedAt), now);
+        if (minute > now - WINDOW_MINUTES) {
+            ring.add(minute);
+        }
+    }
+
+    public List<PisteTrafficDTO> busiest(int minutes, Color color, int top) {
+        if (top < 1) {
+            return Collections.emptyList();
+        }
+        int window = Math.max(1, Math.min(minutes, WINDOW_MINUTES));
+        long now = currentMinute();
+        PriorityQueue<PisteTrafficDTO> best = new PriorityQueue<>(Comparator.comparingLong(PisteTrafficDTO::getScans));
+        for (Ring ring : rings.values()) {
+            if (color != null && ring.color != color) {
+                continue;
+            }
+            long scans = ring.sum(now, window);
+            if (scans > 0 && (best.size() < top || scans > best.peek().getScans())) {
+                best.add(new PisteTrafficDTO(ring.numPiste, ring.namePiste, ring.color, scans));
+                if (best.size() > top) {
+                    best.poll();
+                }
+            }
+        }
+        List<PisteTrafficDTO> ranking = new ArrayList<>(best);
+        ranking.sort(Comparator.comparingLong(PisteTrafficDTO::getScans).reversed());
+        return ranking;
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60000;
+    }
+
+    private static long minuteOf(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+    }
+
+    private static class Ring {
+        final Long numPiste;
+        volatile String namePiste;
+        volatile Color color;
+        final long[] minutes = new long[WINDOW_MINUTES];
+        final long[] counts = new long[WINDOW_MINUTES];
+
+        Ring(Long numPiste) {
+            this.numPiste = numPiste;
+        }
+
+        void describe(String namePiste, Color color) {
+            this.namePiste = namePiste;
+            this.color = color;
+        }
+
+        synchronized void add(long minute) {
+            int index = (int) (minute % WINDOW_MINUTES);
+            if (minutes[index] != minute) {
+                if (minutes[index] > minute) {
+                    return;
+                }
+                minutes[index] = minute;
+                counts[index] = 0;
+            }
+            counts[index]++;
+        }
+
+        synchronized long sum(long now, int window) {
+            long total = 0;
+            for (long minute = now - window + 1; minute <= now; minute++) {
+                int index = (int) (minute % WINDOW_MINUTES);
+                if (minutes[index] == minute) {
+                    total += counts[index];
+                }
+            }
+            return total;
+        }
+    }
+}
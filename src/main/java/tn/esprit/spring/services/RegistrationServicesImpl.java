@@ -3,7 +3,13 @@ package tn.esprit.spring.services;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.dto.BookingOutcome;
+import tn.esprit.spring.dto.BookingTicket;
+import tn.esprit.spring.dto.WaitlistPosition;
 import tn.esprit.spring.entities.*;
+import tn.esprit.spring.metrics.BookingMetrics;
 import tn.esprit.spring.repositories.ICourseRepository;
 import tn.esprit.spring.repositories.IRegistrationRepository;
 import tn.esprit.spring.repositories.ISkierRepository;
@@ -12,6 +18,7 @@ import javax.transaction.Transactional;
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.List;
+import java.util.stream.Collectors;
 @Slf4j
 @AllArgsConstructor
 @Service
@@ -20,6 +27,23 @@ public class RegistrationServicesImpl implements  IRegistrationServices{
     private IRegistrationRepository registrationRepository;
     private ISkierRepository skierRepository;
     private ICourseRepository courseRepository;
+    private SeatInventory seatInventory;
+    private InstructorWeekIndex instructorWeekIndex;
+    private BookingPipeline bookingPipeline;
+    private BookingMetrics bookingMetrics;
+    private Waitlist waitlist;
+
+    public static boolean isAgeAllowed(Course course, LocalDate dateOfBirth) {
+        int age = Period.between(dateOfBirth, LocalDate.now()).getYears();
+        switch (course.getTypeCourse()) {
+            case INDIVIDUAL:
+                return true;
+            case COLLECTIVE_CHILDREN:
+                return age < 16;
+            default:
+                return age >= 16;
+        }
+    }
 
 
     @Override
@@ -29,12 +53,44 @@ public class RegistrationServicesImpl implements  IRegistrationServices{
         return registrationRepository.save(registration);
     }
 
+    /* the seat in the new course is taken like any booking, the one in the previous course is given back */
+    @Transactional
     @Override
     public Registration assignRegistrationToCourse(Long numRegistration, Long numCourse) {
         Registration registration = registrationRepository.findById(numRegistration).orElse(null);
         Course course = courseRepository.findById(numCourse).orElse(null);
+        if (registration == null) {
+            return null;
+        }
+        Course previous = registration.getCourse();
+        int numWeek = registration.getNumWeek();
+        if (previous != null && course != null && previous.getNumCourse().equals(course.getNumCourse())) {
+            return registration;
+        }
+        if (course != null) {
+            Long numSkier = registration.getSkier() == null ? null : registration.getSkier().getNumSkier();
+            SeatInventory.Outcome outcome = seatInventory.reserve(course, numWeek, numSkier);
+            if (outcome != SeatInventory.Outcome.RESERVED) {
+                log.info("Registration " + numRegistration + " not moved to course " + numCourse + " : " + outcome);
+                return null;
+            }
+        }
+        if (previous != null) {
+            seatInventory.release(previous.getNumCourse(), numWeek);
+        }
         registration.setCourse(course);
-        return registrationRepository.save(registration);
+        Registration saved = registrationRepository.save(registration);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                instructorWeekIndex.registrationRemoved(previous, numWeek);
+                instructorWeekIndex.registrationAdded(course, numWeek);
+                if (previous != null) {
+                    waitlist.seatFreed(previous.getNumCourse(), numWeek);
+                }
+            }
+        });
+        return saved;
     }
 
     @Transactional
@@ -44,63 +100,119 @@ public class RegistrationServicesImpl implements  IRegistrationServices{
         Course course = courseRepository.findById(numCours).orElse(null);
 
         if (skier == null || course == null) {
+            bookingMetrics.record(BookingOutcome.NOT_FOUND, false);
             return null;
         }
 
-        if(registrationRepository.countDistinctByNumWeekAndSkier_NumSkierAndCourse_NumCourse(registration.getNumWeek(), skier.getNumSkier(), course.getNumCourse()) >=1){
-            log.info("Sorry, you're already register to this course of the week :" + registration.getNumWeek());
-            return null;
+        if (!isAgeAllowed(course, skier.getDateOfBirth())) {
+            bookingMetrics.record(BookingOutcome.WRONG_AGE, false);
+            log.info("Sorry, your age doesn't allow you to register for this course ! \n Try to Register to a "
+                    + (course.getTypeCourse() == TypeCourse.COLLECTIVE_CHILDREN ? "Collective Adult" : "Collective Child") + " Course...");
+            return registration;
         }
+        return reserveAndAssign(registration, skier, course);
+    }
 
-        int ageSkieur = Period.between(skier.getDateOfBirth(), LocalDate.now()).getYears();
-        log.info("Age " + ageSkieur);
-
-        switch (course.getTypeCourse()) {
-            case INDIVIDUAL:
-                log.info("add without tests");
-                return assignRegistration(registration, skier, course);
-
-            case COLLECTIVE_CHILDREN:
-                if (ageSkieur < 16) {
-                    log.info("Ok CHILD !");
-                    if (registrationRepository.countByCourseAndNumWeek(course, registration.getNumWeek()) < 6) {
-                        log.info("Course successfully added !");
-                        return assignRegistration(registration, skier, course);
-                    } else {
-                        log.info("Full Course ! Please choose another week to register !");
-                        return null;
-                    }
-                }
-                else{
-                    log.info("Sorry, your age doesn't allow you to register for this course ! \n Try to Register to a Collective Adult Course...");
-                }
-                break;
-
+    private Registration reserveAndAssign(Registration registration, Skier skier, Course course) {
+        int numWeek = registration.getNumWeek();
+        switch (seatInventory.reserve(course, numWeek, skier.getNumSkier())) {
+            case DUPLICATE:
+                bookingMetrics.record(BookingOutcome.DUPLICATE, false);
+                log.info("Sorry, you're already register to this course of the week :" + numWeek);
+                return null;
+            case FULL:
+                bookingMetrics.record(BookingOutcome.FULL, false);
+                log.info("Full Course ! Please choose another week to register or join the waitlist !");
+                return null;
             default:
-                if (ageSkieur >= 16) {
-                    log.info("Ok ADULT !");
-                    if (registrationRepository.countByCourseAndNumWeek(course, registration.getNumWeek()) < 6) {
-                        log.info("Course successfully added !");
-                        return assignRegistration(registration, skier, course);
-                    } else {
-                        log.info("Full Course ! Please choose another week to register !");
-                        return null;
-                    }
-                }
-                log.info("Sorry, your age doesn't allow you to register for this course ! \n Try to Register to a Collective Child Course...");
+                break;
         }
-        return registration;
-
+        /* the seat is given back by the rollback if the transaction does not commit */
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    instructorWeekIndex.registrationAdded(course, numWeek);
+                    bookingMetrics.record(BookingOutcome.ACCEPTED, false);
+                } else {
+                    bookingMetrics.record(BookingOutcome.FAILED, false);
+                }
+            }
+        });
+        log.info("Course successfully added !");
+        return assignRegistration(registration, skier, course);
     }
+
     private Registration assignRegistration (Registration registration, Skier skier, Course course){
         registration.setSkier(skier);
         registration.setCourse(course);
         return registrationRepository.save(registration);
     }
 
+    @Transactional
+    @Override
+    public void removeRegistration(Long numRegistration) {
+        Registration registration = registrationRepository.findById(numRegistration).orElse(null);
+        if (registration == null) {
+            return;
+        }
+        Course course = registration.getCourse();
+        int numWeek = registration.getNumWeek();
+        registrationRepository.delete(registration);
+        if (course != null) {
+            seatInventory.release(course.getNumCourse(), numWeek);
+        }
+        /* the seat goes to the waitlist once the delete is committed */
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (course != null) {
+                    instructorWeekIndex.registrationRemoved(course, numWeek);
+                    waitlist.seatFreed(course.getNumCourse(), numWeek);
+                }
+            }
+        });
+    }
+
+    @Override
+    public WaitlistPosition joinWaitlist(Long numSkieur, Long numCours, int numWeek) {
+        Skier skier = skierRepository.findById(numSkieur).orElse(null);
+        Course course = courseRepository.findById(numCours).orElse(null);
+        if (skier == null || course == null || course.getTypeCourse() == TypeCourse.INDIVIDUAL
+                || !isAgeAllowed(course, skier.getDateOfBirth())) {
+            return null;
+        }
+        return waitlist.join(numSkieur, course, numWeek);
+    }
+
+    @Override
+    public WaitlistPosition retrieveWaitlistPosition(Long numEntry) {
+        return waitlist.position(numEntry);
+    }
+
+    @Override
+    public WaitlistPosition leaveWaitlist(Long numEntry) {
+        return waitlist.leave(numEntry);
+    }
+
+    @Override
+    public BookingTicket submitRegistration(Registration registration, Long numSkieur, Long numCours) {
+        return bookingPipeline.submit(registration, numSkieur, numCours);
+    }
+
+    @Override
+    public BookingTicket retrieveBookingTicket(String ticket) {
+        return bookingPipeline.ticket(ticket);
+    }
+
     @Override
     public List<Integer> numWeeksCourseOfInstructorBySupport(Long numInstructor, Support support) {
-        return registrationRepository.numWeeksCourseOfInstructorBySupport(numInstructor, support);
+        List<Integer> weeks = instructorWeekIndex.weeksOf(numInstructor, support);
+        if (weeks == null) {
+            return registrationRepository.numWeeksCourseOfInstructorBySupport(numInstructor, support).stream()
+                    .distinct().sorted().collect(Collectors.toList());
+        }
+        return weeks;
     }
 
 }
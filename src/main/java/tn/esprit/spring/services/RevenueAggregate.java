@@ -0,0 +1,124 @@
+package tn.esprit.spring.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.entities.RevenueSummary;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.repositories.IRevenueSummaryRepository;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/* Running price sum and count of the active subscriptions of each type. Kept up to date by the
+ * subscription writes and expiries of this instance, and periodically reconciled against the
+ * subscription table. Only the reconciled totals are saved to the revenue_summary table, the
+ * running ones would overwrite the changes made by the other instances. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RevenueAggregate {
+
+    private final ISubscriptionRepository subscriptionRepository;
+    private final IRevenueSummaryRepository revenueSummaryRepository;
+
+    private final Map<TypeSubscription, RevenueSummary> totals = new EnumMap<>(TypeSubscription.class);
+
+    @PostConstruct
+    public void load() {
+        synchronized (this) {
+            for (RevenueSummary summary : revenueSummaryRepository.findAll()) {
+                totals.put(summary.getTypeSub(), summary);
+            }
+        }
+        if (totals.size() < TypeSubscription.values().length) {
+            reconcile();
+        }
+    }
+
+    public static boolean isActive(LocalDate endDate) {
+        return endDate == null || endDate.isAfter(LocalDate.now());
+    }
+
+    public void add(Subscription subscription) {
+        if (subscription != null && isActive(subscription.getEndDate())) {
+            apply(subscription.getTypeSub(), subscription.getPrice(), 1);
+        }
+    }
+
+    public void expire(TypeSubscription typeSub, Float price) {
+        apply(typeSub, price, -1);
+    }
+
+    public void update(TypeSubscription previousType, Float previousPrice, LocalDate previousEndDate, Subscription subscription) {
+        if (isActive(previousEndDate)) {
+            apply(previousType, previousPrice, -1);
+        }
+        add(subscription);
+    }
+
+    private synchronized void apply(TypeSubscription typeSub, Float price, int sign) {
+        if (typeSub == null) {
+            return;
+        }
+        RevenueSummary summary = totals.computeIfAbsent(typeSub, t -> new RevenueSummary(t, 0, 0, null));
+        summary.setTotalPrice(summary.getTotalPrice() + sign * (price == null ? 0 : price));
+        summary.setActiveCount(summary.getActiveCount() + sign);
+        summary.setUpdatedAt(LocalDateTime.now());
+    }
+
+    public void reconcile() {
+        List<Object[]> rows = subscriptionRepository.activeRevenueByTypeSub(LocalDate.now());
+        synchronized (this) {
+            Map<TypeSubscription, RevenueSummary> exact = new EnumMap<>(TypeSubscription.class);
+            for (TypeSubscription typeSub : TypeSubscription.values()) {
+                exact.put(typeSub, new RevenueSummary(typeSub, 0, 0, LocalDateTime.now()));
+            }
+            for (Object[] row : rows) {
+                if (row[0] != null) {
+                    RevenueSummary summary = exact.get((TypeSubscription) row[0]);
+                    summary.setTotalPrice(row[1] == null ? 0 : ((Number) row[1]).doubleValue());
+                    summary.setActiveCount(((Number) row[2]).longValue());
+                }
+            }
+            for (RevenueSummary summary : exact.values()) {
+                RevenueSummary running = totals.get(summary.getTypeSub());
+                if (running != null && running.getActiveCount() != summary.getActiveCount()) {
+                    log.info("Revenue of " + summary.getTypeSub() + " reconciled : " + running.getActiveCount()
+                            + " -> " + summary.getActiveCount() + " active subscriptions");
+                }
+            }
+            totals.clear();
+            totals.putAll(exact);
+        }
+        revenueSummaryRepository.saveAll(breakdown());
+    }
+
+    /* average monthly price of each subscription type */
+    public synchronized float monthlyRecurringRevenue() {
+        return averagePrice(TypeSubscription.MONTHLY)
+                + averagePrice(TypeSubscription.SEMESTRIEL) / 6
+                + averagePrice(TypeSubscription.ANNUAL) / 12;
+    }
+
+    public synchronized List<RevenueSummary> breakdown() {
+        List<RevenueSummary> copies = new ArrayList<>();
+        for (RevenueSummary summary : totals.values()) {
+            copies.add(new RevenueSummary(summary.getTypeSub(), summary.getTotalPrice(),
+                    summary.getActiveCount(), summary.getUpdatedAt()));
+        }
+        return copies;
+    }
+
+    private float averagePrice(TypeSubscription typeSub) {
+        RevenueSummary summary = totals.get(typeSub);
+        return summary == null ? 0f : summary.averagePrice();
+    }
+}
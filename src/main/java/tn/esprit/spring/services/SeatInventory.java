@@ -0,0 +1,97 @@
+package tn.esprit.spring.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.CourseSeats;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.repositories.ICourseSeatsRepository;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* Seats taken per (course, week), counted in a course_seats row shared by the instances, so that a booking
+ * needs no COUNT query and two instances never sell the same seat. reserve and release must be called in
+ * the transaction inserting or deleting the registration : a rollback gives the seat back. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatInventory {
+
+    public enum Outcome { RESERVED, FULL, DUPLICATE }
+
+    private final ICourseSeatsRepository courseSeatsRepository;
+    private final IRegistrationRepository registrationRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /* course weeks whose row is known to exist, rows are never deleted */
+    private final Set<CourseSeats.Key> created = ConcurrentHashMap.newKeySet();
+    private TransactionTemplate newTransaction;
+
+    @Value("${registration.course.default-capacity:6}")
+    private int defaultCapacity;
+
+    @PostConstruct
+    public void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public int capacityOf(Course course) {
+        if (course.getTypeCourse() == TypeCourse.INDIVIDUAL) {
+            return Integer.MAX_VALUE;
+        }
+        return course.getCapacity() != null ? course.getCapacity() : defaultCapacity;
+    }
+
+    public Outcome reserve(Course course, int numWeek, Long numSkier) {
+        createIfMissing(course, numWeek);
+        boolean taken = courseSeatsRepository.take(course.getNumCourse(), numWeek, numSkier, capacityOf(course)) == 1;
+        /* counted again under the row lock : a database evaluating the subquery of take on the snapshot read
+         * before the lock wait misses a registration committed meanwhile */
+        boolean registered = registrationRepository.countDistinctByNumWeekAndSkier_NumSkierAndCourse_NumCourse(numWeek, numSkier, course.getNumCourse()) > 0;
+        if (taken && registered) {
+            courseSeatsRepository.release(course.getNumCourse(), numWeek);
+        }
+        if (registered) {
+            return Outcome.DUPLICATE;
+        }
+        return taken ? Outcome.RESERVED : Outcome.FULL;
+    }
+
+    public void release(Long numCourse, int numWeek) {
+        courseSeatsRepository.release(numCourse, numWeek);
+    }
+
+    public int seatsTaken(Long numCourse, int numWeek) {
+        return courseSeatsRepository.findById(new CourseSeats.Key(numCourse, numWeek)).map(CourseSeats::getTaken).orElse(0);
+    }
+
+    /* created in its own transaction, before the booking transaction locks anything, and counted from the
+     * registrations made before the table existed */
+    private void createIfMissing(Course course, int numWeek) {
+        CourseSeats.Key key = new CourseSeats.Key(course.getNumCourse(), numWeek);
+        if (created.contains(key)) {
+            return;
+        }
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (!courseSeatsRepository.existsById(key)) {
+                    courseSeatsRepository.create(key.getNumCourse(), numWeek, (int) registrationRepository.countByCourseAndNumWeek(course, numWeek));
+                    log.info("Seats of course " + key.getNumCourse() + " week " + numWeek + " counted");
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            /* created meanwhile by another booking */
+        }
+        created.add(key);
+    }
+}
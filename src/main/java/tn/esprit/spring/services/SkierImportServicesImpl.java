@@ -0,0 +1,239 @@
+package tn.esprit.spring.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.dto.ImportError;
+import tn.esprit.spring.dto.ImportFormat;
+import tn.esprit.spring.dto.ImportReport;
+import tn.esprit.spring.dto.SkierImportRow;
+import tn.esprit.spring.entities.*;
+import tn.esprit.spring.repositories.ICourseRepository;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/* Reads the file chunk by chunk: each chunk is parsed and validated in parallel,
+ * then written in its own transaction so that JDBC batching applies and a failing
+ * chunk does not abort the rest of the file. */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SkierImportServicesImpl implements ISkierImportServices {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ICourseRepository courseRepository;
+    private final SeatInventory seatInventory;
+    private final ObjectMapper objectMapper;
+    private final SubscriptionExpiryWheel expiryWheel;
+    private final RevenueAggregate revenueAggregate;
+    private final InstructorWeekIndex instructorWeekIndex;
+    private final SkierSearchIndex skierSearchIndex;
+
+    @Value("${skier.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${skier.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Override
+    public ImportReport importSkiers(InputStream input, ImportFormat format) throws IOException {
+        long start = System.nanoTime();
+        Map<Long, Course> courses = courseRepository.findAll().stream()
+                .collect(Collectors.toMap(Course::getNumCourse, Function.identity()));
+        ImportReport report = new ImportReport();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty() || (format == ImportFormat.CSV && lineNumber == 1 && line.startsWith("firstName"))) {
+                continue;
+            }
+            chunk.add(new ParsedRow(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, format, courses, report);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, format, courses, report);
+        }
+
+        report.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+        report.setRowsPerSecond(report.getRowsImported() * 1000.0 / Math.max(1, report.getDurationMillis()));
+        log.info("Skier import : " + report.getRowsImported() + " imported, " + report.getRowsRejected()
+                + " rejected in " + report.getDurationMillis() + " ms (" + (long) report.getRowsPerSecond() + " rows/s)");
+        return report;
+    }
+
+    private void importChunk(List<ParsedRow> chunk, ImportFormat format, Map<Long, Course> courses, ImportReport report) {
+        report.setRowsRead(report.getRowsRead() + chunk.size());
+        chunk.parallelStream().forEach(parsed -> validate(parsed, format, courses));
+
+        List<ParsedRow> valid = new ArrayList<>(chunk.size());
+        for (ParsedRow parsed : chunk) {
+            if (parsed.error == null) {
+                valid.add(parsed);
+            } else {
+                reject(report, parsed.line, parsed.error);
+            }
+        }
+
+        List<ParsedRow> full = new ArrayList<>();
+        try {
+            /* the seats taken are given back by the rollback */
+            transactionTemplate.executeWithoutResult(status -> {
+                for (ParsedRow parsed : valid) {
+                    write(parsed, courses, full);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Skier import : chunk starting at line " + chunk.get(0).line + " rolled back", e);
+            for (ParsedRow parsed : valid) {
+                reject(report, parsed.line, "Chunk rolled back : " + e.getMessage());
+            }
+            return;
+        }
+        for (ParsedRow parsed : full) {
+            reject(report, parsed.line, "Full Course " + parsed.row.getNumCourse() + " for week " + parsed.row.getNumWeek());
+        }
+        for (ParsedRow parsed : valid) {
+            if (!full.contains(parsed)) {
+                expiryWheel.schedule(parsed.subscription);
+                revenueAggregate.add(parsed.subscription);
+                skierSearchIndex.add(parsed.numSkier, parsed.row.getFirstName(), parsed.row.getLastName(), parsed.row.getCity());
+                if (parsed.row.getNumCourse() != null) {
+                    instructorWeekIndex.registrationAdded(courses.get(parsed.row.getNumCourse()), parsed.row.getNumWeek());
+                }
+            }
+        }
+        report.setRowsImported(report.getRowsImported() + valid.size() - full.size());
+    }
+
+    private void write(ParsedRow parsed, Map<Long, Course> courses, List<ParsedRow> full) {
+        SkierImportRow row = parsed.row;
+        Subscription subscription = new Subscription();
+        subscription.setTypeSub(row.getTypeSub());
+        subscription.setStartDate(row.getStartDate());
+        subscription.setPrice(row.getPrice());
+        SubscriptionDates.computeEndDate(subscription);
+
+        Skier skier = new Skier();
+        skier.setFirstName(row.getFirstName());
+        skier.setLastName(row.getLastName());
+        skier.setDateOfBirth(row.getDateOfBirth());
+        skier.setCity(row.getCity());
+        skier.setSubscription(subscription);
+        entityManager.persist(skier);
+        parsed.numSkier = skier.getNumSkier();
+        parsed.subscription = subscription;
+
+        if (row.getNumCourse() == null) {
+            return;
+        }
+        Course course = courses.get(row.getNumCourse());
+        if (seatInventory.reserve(course, row.getNumWeek(), skier.getNumSkier()) != SeatInventory.Outcome.RESERVED) {
+            /* the new skier is deleted in the same transaction */
+            entityManager.remove(skier);
+            full.add(parsed);
+            return;
+        }
+
+        Registration registration = new Registration();
+        registration.setNumWeek(row.getNumWeek());
+        registration.setSkier(skier);
+        registration.setCourse(course);
+        entityManager.persist(registration);
+    }
+
+    private void validate(ParsedRow parsed, ImportFormat format, Map<Long, Course> courses) {
+        SkierImportRow row;
+        try {
+            row = format == ImportFormat.CSV ? parseCsv(parsed.text) : objectMapper.readValue(parsed.text, SkierImportRow.class);
+        } catch (Exception e) {
+            parsed.error = "Unreadable row : " + e.getMessage();
+            return;
+        }
+        parsed.row = row;
+        if (isBlank(row.getFirstName()) || isBlank(row.getLastName())) {
+            parsed.error = "First name and last name are required";
+        } else if (row.getDateOfBirth() == null || row.getDateOfBirth().isAfter(LocalDate.now())) {
+            parsed.error = "Invalid date of birth";
+        } else if (row.getTypeSub() == null || row.getStartDate() == null) {
+            parsed.error = "Subscription type and start date are required";
+        } else if (row.getPrice() == null || row.getPrice() < 0) {
+            parsed.error = "Invalid subscription price";
+        } else if (row.getNumCourse() != null && !courses.containsKey(row.getNumCourse())) {
+            parsed.error = "Unknown course " + row.getNumCourse();
+        } else if (row.getNumCourse() != null && (row.getNumWeek() == null || row.getNumWeek() < 1 || row.getNumWeek() > 53)) {
+            parsed.error = "Invalid week number";
+        } else if (row.getNumCourse() != null && !RegistrationServicesImpl.isAgeAllowed(courses.get(row.getNumCourse()), row.getDateOfBirth())) {
+            parsed.error = "Age not allowed in course " + row.getNumCourse();
+        }
+    }
+
+    /* firstName,lastName,dateOfBirth,city,typeSub,startDate,price[,numCourse,numWeek] */
+    private SkierImportRow parseCsv(String text) {
+        String[] columns = text.split(",", -1);
+        if (columns.length != 7 && columns.length != 9) {
+            throw new IllegalArgumentException("expected 7 or 9 columns, found " + columns.length);
+        }
+        SkierImportRow row = new SkierImportRow();
+        row.setFirstName(columns[0].trim());
+        row.setLastName(columns[1].trim());
+        row.setDateOfBirth(LocalDate.parse(columns[2].trim()));
+        row.setCity(columns[3].trim());
+        row.setTypeSub(TypeSubscription.valueOf(columns[4].trim()));
+        row.setStartDate(LocalDate.parse(columns[5].trim()));
+        row.setPrice(Float.valueOf(columns[6].trim()));
+        if (columns.length == 9 && !columns[7].trim().isEmpty()) {
+            row.setNumCourse(Long.valueOf(columns[7].trim()));
+            row.setNumWeek(Integer.valueOf(columns[8].trim()));
+        }
+        return row;
+    }
+
+    private void reject(ImportReport report, long line, String message) {
+        report.setRowsRejected(report.getRowsRejected() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ImportError(line, message));
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static class ParsedRow {
+        final long line;
+        final String text;
+        SkierImportRow row;
+        String error;
+        Long numSkier;
+        Subscription subscription;
+
+        ParsedRow(long line, String text) {
+            this.line = line;
+            this.text = text;
+        }
+    }
+}
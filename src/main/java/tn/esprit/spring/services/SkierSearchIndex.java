@@ -0,0 +1,331 @@
+package tn.esprit.spring.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.dto.SkierSearchResult;
+import tn.esprit.spring.repositories.ISkierRepository;
+
+import javax.annotation.PostConstruct;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/* Prefix index over the first name, last name and city of the skiers.
+ * Every skier takes a slot : its number and the ids of its three values in a dictionary of distinct
+ * values, about 20 bytes. Every normalized word of the values points to the slots holding it through
+ * a sorted int array, 4 bytes per word occurrence, and a skier number finds its slot through an open
+ * addressing table, 24 to 48 bytes. A million skiers take some 70 MB, mostly independent of the
+ * lengths of the names. A removed or re-indexed skier leaves an empty slot, the index is compacted
+ * once empty slots pass compact-ratio of the slots, which drops their postings and unused values. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SkierSearchIndex {
+
+    public static final int MAX_RESULTS = 100;
+
+    private final ISkierRepository skierRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> words = new TreeMap<>();
+    private final Map<String, Integer> valueIds = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private long[] skiers = new long[1024];
+    private int[] fields = new int[3 * 1024];
+    private int slots;
+    private int removed;
+    private final SlotTable slotTable = new SlotTable();
+
+    @Value("${skier.search.compact-ratio:0.25}")
+    private double compactRatio;
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear(1024);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = skierRepository.streamNames()) {
+                    rows.forEach(row -> insert((Long) row[0], (String) row[1], (String) row[2], (String) row[3]));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Skier search index loaded : " + slots + " skiers, " + words.size() + " words");
+    }
+
+    public void add(Long numSkier, String firstName, String lastName, String city) {
+        if (numSkier == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            insert(numSkier, firstName, lastName, city);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long numSkier) {
+        if (numSkier == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (free(numSkier)) {
+                compactIfSparse();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean free(long numSkier) {
+        int slot = slotTable.get(numSkier);
+        if (slot < 0) {
+            return false;
+        }
+        skiers[slot] = 0;
+        slotTable.put(numSkier, -1);
+        removed++;
+        return true;
+    }
+
+    /* a skier updated again and again leaves as many empty slots as a removed one */
+    private void compactIfSparse() {
+        if (removed > 1024 && removed > compactRatio * slots) {
+            compact();
+        }
+    }
+
+    /* inserts the live slots again in their order, into new structures */
+    private void compact() {
+        long[] liveSkiers = skiers;
+        int[] liveFields = fields;
+        List<String> liveValues = new ArrayList<>(values);
+        int liveSlots = slots;
+        int dropped = removed;
+        clear(Math.max(1024, liveSlots - removed));
+        for (int slot = 0; slot < liveSlots; slot++) {
+            if (liveSkiers[slot] != 0) {
+                insert(liveSkiers[slot], valueOf(liveValues, liveFields[3 * slot]), valueOf(liveValues, liveFields[3 * slot + 1]),
+                        valueOf(liveValues, liveFields[3 * slot + 2]));
+            }
+        }
+        log.info("Skier search index compacted : " + dropped + " removed skiers dropped, " + slots + " left");
+    }
+
+    private void clear(int capacity) {
+        words.clear();
+        valueIds.clear();
+        values.clear();
+        slotTable.clear();
+        skiers = new long[capacity];
+        fields = new int[3 * capacity];
+        slots = 0;
+        removed = 0;
+    }
+
+    /* every word of the query must prefix a word of the skier, exact words rank first */
+    public List<SkierSearchResult> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        limit = Math.max(1, Math.min(limit, MAX_RESULTS));
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            return terms.size() == 1 ? searchPrefix(terms.get(0), limit) : searchAll(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* words are visited in order, so the exact word comes before the longer ones */
+    private List<SkierSearchResult> searchPrefix(String prefix, int limit) {
+        List<SkierSearchResult> results = new ArrayList<>(limit);
+        BitSet seen = new BitSet();
+        for (Postings postings : words.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for (int i = 0; i < postings.size && results.size() < limit; i++) {
+                int slot = postings.slots[i];
+                if (skiers[slot] != 0 && !seen.get(slot)) {
+                    seen.set(slot);
+                    results.add(resultOf(slot));
+                }
+            }
+            if (results.size() >= limit) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    private List<SkierSearchResult> searchAll(List<String> terms, int limit) {
+        BitSet matches = null;
+        for (String term : terms) {
+            BitSet slotsOfTerm = new BitSet(slots);
+            for (Postings postings : words.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    slotsOfTerm.set(postings.slots[i]);
+                }
+            }
+            if (matches == null) {
+                matches = slotsOfTerm;
+            } else {
+                matches.and(slotsOfTerm);
+            }
+            if (matches.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        List<SkierSearchResult> results = new ArrayList<>(limit);
+        for (int slot = matches.nextSetBit(0); slot >= 0 && results.size() < limit; slot = matches.nextSetBit(slot + 1)) {
+            if (skiers[slot] != 0) {
+                results.add(resultOf(slot));
+            }
+        }
+        return results;
+    }
+
+    private SkierSearchResult resultOf(int slot) {
+        return new SkierSearchResult(skiers[slot], valueOf(fields[3 * slot]), valueOf(fields[3 * slot + 1]),
+                valueOf(fields[3 * slot + 2]));
+    }
+
+    private String valueOf(int id) {
+        return valueOf(values, id);
+    }
+
+    private static String valueOf(List<String> values, int id) {
+        return id < 0 ? null : values.get(id);
+    }
+
+    /* a skier indexed again, after an update, leaves its previous slot */
+    private void insert(Long numSkier, String firstName, String lastName, String city) {
+        free(numSkier);
+        if (slots == skiers.length) {
+            skiers = Arrays.copyOf(skiers, slots * 2);
+            fields = Arrays.copyOf(fields, 6 * slots);
+        }
+        int slot = slots++;
+        skiers[slot] = numSkier;
+        slotTable.put(numSkier, slot);
+        String[] slotValues = {firstName, lastName, city};
+        for (int f = 0; f < 3; f++) {
+            fields[3 * slot + f] = idOf(slotValues[f]);
+            for (String word : tokenize(slotValues[f])) {
+                words.computeIfAbsent(word, w -> new Postings()).add(slot);
+            }
+        }
+    }
+
+    private int idOf(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = valueIds.get(value);
+        if (id == null) {
+            id = values.size();
+            values.add(value);
+            valueIds.put(value, id);
+        }
+        return id;
+    }
+
+    /* lower case words without accents */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>(2);
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /* skier number -> slot, with linear probing. A removed skier keeps its key with slot -1 until
+     * the next compaction, so that the table never has to delete */
+    private static class SlotTable {
+        long[] keys = new long[2048];
+        int[] slots = new int[2048];
+        int size;
+
+        int get(long numSkier) {
+            int mask = keys.length - 1;
+            for (int i = hash(numSkier) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == numSkier) {
+                    return slots[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(long numSkier, int slot) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int i = hash(numSkier) & mask;
+            while (keys[i] != 0 && keys[i] != numSkier) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) {
+                keys[i] = numSkier;
+                size++;
+            }
+            slots[i] = slot;
+        }
+
+        void clear() {
+            keys = new long[2048];
+            slots = new int[2048];
+            size = 0;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldSlots = slots;
+            keys = new long[2 * oldKeys.length];
+            slots = new int[2 * oldKeys.length];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldSlots[i]);
+                }
+            }
+        }
+
+        private static int hash(long numSkier) {
+            long h = numSkier * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /* slots only grow, so appending keeps the array sorted */
+    private static class Postings {
+        int[] slots = new int[2];
+        int size;
+
+        void add(int slot) {
+            if (size > 0 && slots[size - 1] == slot) {
+                return;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size + (size >> 1) + 1);
+            }
+            slots[size++] = slot;
+        }
+    }
+}
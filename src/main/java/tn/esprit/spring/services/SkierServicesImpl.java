@@ -2,10 +2,20 @@ package tn.esprit.spring.services;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.LiftScanEvent;
+import tn.esprit.spring.dto.SkierDTO;
+import tn.esprit.spring.dto.SkierSearchResult;
 import tn.esprit.spring.entities.*;
 import tn.esprit.spring.repositories.*;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -23,76 +33,144 @@ public class SkierServicesImpl implements ISkierServices {
 
     private ISubscriptionRepository subscriptionRepository;
 
+    private SeatInventory seatInventory;
+
+    private SubscriptionExpiryWheel expiryWheel;
+
+    private RevenueAggregate revenueAggregate;
+
+    private InstructorWeekIndex instructorWeekIndex;
+
+    private LiftScanPipeline liftScanPipeline;
+
+    private SkierSearchIndex skierSearchIndex;
+
 
     @Override
-    public List<Skier> retrieveAllSkiers() {
-        return skierRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<SkierDTO> retrieveAllSkiers() {
+        return SkierDTO.from(skierRepository.findAllWithRegistrations());
     }
 
     @Override
-    public Skier addSkier(Skier skier) {
-        switch (skier.getSubscription().getTypeSub()) {
-            case ANNUAL:
-                skier.getSubscription().setEndDate(skier.getSubscription().getStartDate().plusYears(1));
-                break;
-            case SEMESTRIEL:
-                skier.getSubscription().setEndDate(skier.getSubscription().getStartDate().plusMonths(6));
-                break;
-            case MONTHLY:
-                skier.getSubscription().setEndDate(skier.getSubscription().getStartDate().plusMonths(1));
-                break;
-        }
-        return skierRepository.save(skier);
+    @Transactional
+    public SkierDTO addSkier(Skier skier) {
+        SubscriptionDates.computeEndDate(skier.getSubscription());
+        Skier saved = skierRepository.save(skier);
+        addedAfterCommit(saved);
+        return SkierDTO.from(saved);
     }
 
     @Override
-    public Skier assignSkierToSubscription(Long numSkier, Long numSubscription) {
+    @Transactional
+    public SkierDTO assignSkierToSubscription(Long numSkier, Long numSubscription) {
         Skier skier = skierRepository.findById(numSkier).orElse(null);
         Subscription subscription = subscriptionRepository.findById(numSubscription).orElse(null);
         skier.setSubscription(subscription);
-        return skierRepository.save(skier);
+        return SkierDTO.from(skierRepository.save(skier));
     }
 
     @Override
-    public Skier addSkierAndAssignToCourse(Skier skier, Long numCourse) {
+    @Transactional
+    public SkierDTO addSkierAndAssignToCourse(Skier skier, Long numCourse) {
         Skier savedSkier = skierRepository.save(skier);
         Course course = courseRepository.getById(numCourse);
-        Set<Registration> registrations = savedSkier.getRegistrations();
-        for (Registration r : registrations) {
+        Set<Registration> registrations = savedSkier.getRegistrations() == null ? new HashSet<>() : savedSkier.getRegistrations();
+        List<Integer> weeks = new ArrayList<>();
+        /* a week that is full or booked twice is left out, the seats taken go back if the transaction rolls back */
+        for (Iterator<Registration> iterator = registrations.iterator(); iterator.hasNext(); ) {
+            Registration r = iterator.next();
+            if (seatInventory.reserve(course, r.getNumWeek(), savedSkier.getNumSkier()) != SeatInventory.Outcome.RESERVED) {
+                iterator.remove();
+                continue;
+            }
             r.setSkier(savedSkier);
             r.setCourse(course);
             registrationRepository.save(r);
+            weeks.add(r.getNumWeek());
         }
-        return savedSkier;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Integer week : weeks) {
+                    instructorWeekIndex.registrationAdded(course, week);
+                }
+            }
+        });
+        addedAfterCommit(savedSkier);
+        return SkierDTO.from(savedSkier);
     }
 
     @Override
+    @Transactional
     public void removeSkier(Long numSkier) {
+        Subscription subscription = skierRepository.findById(numSkier).map(Skier::getSubscription).orElse(null);
         skierRepository.deleteById(numSkier);
+        /* the subscription is deleted with the skier, it leaves the totals only if the delete commits */
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                skierSearchIndex.remove(numSkier);
+                if (subscription != null) {
+                    expiryWheel.schedule(subscription.getNumSub(), null);
+                    if (RevenueAggregate.isActive(subscription.getEndDate())) {
+                        revenueAggregate.expire(subscription.getTypeSub(), subscription.getPrice());
+                    }
+                }
+            }
+        });
     }
 
     @Override
-    public Skier retrieveSkier(Long numSkier) {
-        return skierRepository.findById(numSkier).orElse(null);
+    @Transactional(readOnly = true)
+    public SkierDTO retrieveSkier(Long numSkier) {
+        return skierRepository.findWithRegistrationsById(numSkier).map(SkierDTO::from).orElse(null);
     }
 
     @Override
-    public Skier assignSkierToPiste(Long numSkieur, Long numPiste) {
-        Skier skier = skierRepository.findById(numSkieur).orElse(null);
-        Piste piste = pisteRepository.findById(numPiste).orElse(null);
-        try {
-            skier.getPistes().add(piste);
-        } catch (NullPointerException exception) {
-            Set<Piste> pisteList = new HashSet<>();
-            pisteList.add(piste);
-            skier.setPistes(pisteList);
+    @Transactional
+    public SkierDTO assignSkierToPiste(Long numSkieur, Long numPiste) {
+        if (!skierRepository.existsById(numSkieur) || !pisteRepository.existsById(numPiste)) {
+            return null;
         }
+        /* one row inserted in the join table, concurrent assignments no longer overwrite each other */
+        skierRepository.addExcursion(numSkieur, numPiste);
+        liftScanPipeline.offer(new LiftScanEvent(numSkieur, numPiste, LocalDateTime.now()));
+        /* read after the insert, so the skier returned is the one assigned */
+        return SkierDTO.from(skierRepository.findWithRegistrationsById(numSkieur).orElse(null));
+    }
 
-        return skierRepository.save(skier);
+    @Override
+    @Transactional(readOnly = true)
+    public List<SkierDTO> retrieveSkiersBySubscriptionType(TypeSubscription typeSubscription) {
+        return SkierDTO.from(skierRepository.findWithRegistrationsBySubscriptionType(typeSubscription));
     }
 
     @Override
-    public List<Skier> retrieveSkiersBySubscriptionType(TypeSubscription typeSubscription) {
-        return skierRepository.findBySubscription_TypeSub(typeSubscription);
+    @Transactional(readOnly = true)
+    public CursorPage<SkierDTO> retrieveSkiersPage(String cursor, int size, TypeSubscription typeSubscription) {
+        long after = CursorPage.decode(cursor);
+        List<Skier> rows = typeSubscription == null
+                ? skierRepository.findByNumSkierGreaterThanOrderByNumSkierAsc(after, CursorPage.limitOf(size))
+                : skierRepository.findBySubscription_TypeSubAndNumSkierGreaterThanOrderByNumSkierAsc(typeSubscription, after, CursorPage.limitOf(size));
+        /* registrations of the page are loaded in batches of 100 while mapping */
+        return CursorPage.of(rows, size, Skier::getNumSkier).map(SkierDTO::from);
+    }
+
+    @Override
+    public List<SkierSearchResult> searchSkiers(String query, int limit) {
+        return skierSearchIndex.search(query, limit);
+    }
+
+    /* a skier only becomes searchable, and its subscription only counts, once its insert is committed */
+    private void addedAfterCommit(Skier skier) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                expiryWheel.schedule(skier.getSubscription());
+                revenueAggregate.add(skier.getSubscription());
+                skierSearchIndex.add(skier.getNumSkier(), skier.getFirstName(), skier.getLastName(), skier.getCity());
+            }
+        });
     }
 }
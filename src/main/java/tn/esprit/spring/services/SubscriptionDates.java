@@ -0,0 +1,29 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.TypeSubscription;
+
+import java.time.LocalDate;
+
+public final class SubscriptionDates {
+
+    private SubscriptionDates() {
+    }
+
+    public static LocalDate endDateOf(TypeSubscription typeSub, LocalDate startDate) {
+        switch (typeSub) {
+            case ANNUAL:
+                return startDate.plusYears(1);
+            case SEMESTRIEL:
+                return startDate.plusMonths(6);
+            case MONTHLY:
+                return startDate.plusMonths(1);
+            default:
+                throw new IllegalArgumentException("Unknown subscription type " + typeSub);
+        }
+    }
+
+    public static void computeEndDate(Subscription subscription) {
+        subscription.setEndDate(endDateOf(subscription.getTypeSub(), subscription.getStartDate()));
+    }
+}
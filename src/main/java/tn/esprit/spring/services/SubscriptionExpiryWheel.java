@@ -0,0 +1,153 @@
+package tn.esprit.spring.services;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.entities.ExpiryCheckpoint;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.repositories.IExpiryCheckpointRepository;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/* Upcoming subscription end dates bucketed by day, a subscription is active until the day it ends.
+ * A subscription leaves the wheel when it is polled as due, so its expiry is handled once
+ * unless it gets a new end date. The last processed day is saved, so that the expiries that fell
+ * while the service was down are polled as due after a restart. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SubscriptionExpiryWheel {
+
+    private final ISubscriptionRepository subscriptionRepository;
+    private final IExpiryCheckpointRepository checkpointRepository;
+
+    private final TreeMap<LocalDate, Set<Long>> buckets = new TreeMap<>();
+    private final Map<Long, LocalDate> scheduled = new HashMap<>();
+    private LocalDate processedThrough;
+    private LocalDate savedThrough;
+
+    @Value("${subscription.expiry.refresh-days:1}")
+    private int refreshDays;
+
+    @PostConstruct
+    public void load() {
+        LocalDate checkpoint = checkpointRepository.findById(ExpiryCheckpoint.ID)
+                .map(ExpiryCheckpoint::getProcessedThrough).orElse(null);
+        int loaded = 0;
+        synchronized (this) {
+            processedThrough = checkpoint == null ? LocalDate.now() : checkpoint;
+            savedThrough = checkpoint;
+            for (Object[] row : subscriptionRepository.findExpiryScheduleAfter(processedThrough)) {
+                place((Long) row[0], (LocalDate) row[1]);
+                loaded++;
+            }
+        }
+        log.info("Subscription expiry wheel loaded : " + loaded + " expiries after " + processedThrough);
+    }
+
+    /* Reloads the end dates of the next days from the table, whatever path or instance wrote them :
+     * the subscriptions ending in the window are scheduled and the ones that left it are dropped */
+    public synchronized int refresh(LocalDate today) {
+        LocalDate upTo = today.plusDays(refreshDays);
+        Map<Long, LocalDate> window = new HashMap<>();
+        for (Object[] row : subscriptionRepository.findExpiryScheduleBetween(processedThrough, upTo)) {
+            window.put((Long) row[0], (LocalDate) row[1]);
+        }
+        List<Long> stale = new ArrayList<>();
+        for (Set<Long> bucket : buckets.subMap(processedThrough, false, upTo, true).values()) {
+            for (Long numSub : bucket) {
+                if (!window.containsKey(numSub)) {
+                    stale.add(numSub);
+                }
+            }
+        }
+        for (Long numSub : stale) {
+            place(numSub, null);
+        }
+        window.forEach(this::place);
+        return window.size();
+    }
+
+    public void schedule(Subscription subscription) {
+        if (subscription != null && subscription.getNumSub() != null) {
+            schedule(subscription.getNumSub(), subscription.getEndDate());
+        }
+    }
+
+    /* a subscription whose end date is not in the future is already expired and is unscheduled */
+    public synchronized void schedule(Long numSub, LocalDate endDate) {
+        if (endDate != null && !endDate.isAfter(LocalDate.now())) {
+            endDate = null;
+        }
+        place(numSub, endDate);
+    }
+
+    /* days up to processedThrough are done, an end date among them is not scheduled again */
+    private void place(Long numSub, LocalDate endDate) {
+        if (endDate != null && !endDate.isAfter(processedThrough)) {
+            endDate = null;
+        }
+        LocalDate previous = endDate == null ? scheduled.remove(numSub) : scheduled.put(numSub, endDate);
+        if (previous != null && !previous.equals(endDate)) {
+            Set<Long> bucket = buckets.get(previous);
+            bucket.remove(numSub);
+            if (bucket.isEmpty()) {
+                buckets.remove(previous);
+            }
+        }
+        if (endDate != null) {
+            buckets.computeIfAbsent(endDate, d -> new HashSet<>()).add(numSub);
+        }
+    }
+
+    public synchronized List<Expiry> pollDue(LocalDate today) {
+        List<Expiry> due = new ArrayList<>();
+        while (!buckets.isEmpty() && !buckets.firstKey().isAfter(today)) {
+            Map.Entry<LocalDate, Set<Long>> bucket = buckets.pollFirstEntry();
+            for (Long numSub : bucket.getValue()) {
+                scheduled.remove(numSub);
+                due.add(new Expiry(numSub, bucket.getKey()));
+            }
+        }
+        if (today.isAfter(processedThrough)) {
+            processedThrough = today;
+        }
+        return due;
+    }
+
+    /* called once the polled expiries are handled, a restart before that handles them again */
+    public void saveCheckpoint() {
+        LocalDate through;
+        synchronized (this) {
+            if (processedThrough.equals(savedThrough)) {
+                return;
+            }
+            through = processedThrough;
+        }
+        checkpointRepository.save(new ExpiryCheckpoint(ExpiryCheckpoint.ID, through, LocalDateTime.now()));
+        synchronized (this) {
+            savedThrough = through;
+        }
+    }
+
+    public synchronized int size() {
+        return scheduled.size();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    public static class Expiry {
+        Long numSub;
+        LocalDate endDate;
+    }
+}
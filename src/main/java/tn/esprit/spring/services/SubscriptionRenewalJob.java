@@ -0,0 +1,216 @@
+package tn.esprit.spring.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.dto.RenewalReport;
+import tn.esprit.spring.entities.RenewalPartition;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.repositories.IRenewalPartitionRepository;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/* Renews the subscriptions ending within a window. The subscription numbers due are split in ranges,
+ * renewed in parallel, chunk by chunk, each chunk in its own transaction with the partition checkpoint.
+ * Partitions left unfinished by a crash are resumed at startup. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SubscriptionRenewalJob {
+
+    private final ISubscriptionRepository subscriptionRepository;
+    private final IRenewalPartitionRepository renewalPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SubscriptionExpiryWheel expiryWheel;
+    private final RevenueAggregate revenueAggregate;
+
+    @Value("${subscription.renewal.workers:4}")
+    private int workerCount;
+
+    @Value("${subscription.renewal.partitions:16}")
+    private int partitionCount;
+
+    @Value("${subscription.renewal.chunk-size:1000}")
+    private int chunkSize;
+
+    @Getter
+    @Value("${subscription.renewal.window-days:7}")
+    private int windowDays;
+
+    private ExecutorService workers;
+    private volatile List<Long> current = Collections.emptyList();
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "subscription-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void resume() {
+        List<RenewalPartition> unfinished = transactionTemplate.execute(status -> renewalPartitionRepository.findByCompletedFalseOrderByNumPartitionAsc());
+        if (!unfinished.isEmpty() && !running) {
+            log.info("Resuming the subscription renewal of " + unfinished.get(0).getDueFrom() + " - "
+                    + unfinished.get(0).getDueTo() + " : " + unfinished.size() + " partitions left");
+            run(unfinished);
+        }
+    }
+
+    /* renews the subscriptions ending from today to today + windowDays, or reports the run in progress */
+    public synchronized RenewalReport start(int windowDays) {
+        if (running) {
+            return report();
+        }
+        /* planned in a read-write transaction, so on the primary even when a replica is configured */
+        List<RenewalPartition> unfinished = transactionTemplate.execute(status -> {
+            List<RenewalPartition> pending = renewalPartitionRepository.findByCompletedFalseOrderByNumPartitionAsc();
+            if (!pending.isEmpty()) {
+                return pending;
+            }
+            LocalDate from = LocalDate.now();
+            return plan(from, from.plusDays(windowDays));
+        });
+        run(unfinished);
+        return report();
+    }
+
+    public RenewalReport report() {
+        long renewed = 0;
+        long skipped = 0;
+        int completed = 0;
+        LocalDate dueFrom = null;
+        LocalDate dueTo = null;
+        for (RenewalPartition partition : renewalPartitionRepository.findAllById(current)) {
+            renewed += partition.getRenewed();
+            skipped += partition.getSkipped();
+            completed += partition.isCompleted() ? 1 : 0;
+            dueFrom = partition.getDueFrom();
+            dueTo = partition.getDueTo();
+        }
+        return new RenewalReport(running, dueFrom, dueTo, current.size(), completed, renewed, skipped);
+    }
+
+    /* equal ranges of subscription numbers between the first and the last one due */
+    private List<RenewalPartition> plan(LocalDate from, LocalDate to) {
+        List<Object[]> bounds = subscriptionRepository.findRenewalRange(from, to);
+        if (bounds.isEmpty() || bounds.get(0)[0] == null) {
+            return Collections.emptyList();
+        }
+        long first = (Long) bounds.get(0)[0];
+        long last = (Long) bounds.get(0)[1];
+        long span = Math.max(1, (last - first + partitionCount) / partitionCount);
+        List<RenewalPartition> partitions = new ArrayList<>();
+        for (long start = first - 1; start < last; start += span) {
+            partitions.add(new RenewalPartition(null, from, to, start, Math.min(start + span, last), 0, 0, false, LocalDateTime.now()));
+        }
+        List<RenewalPartition> saved = new ArrayList<>();
+        renewalPartitionRepository.saveAll(partitions).forEach(saved::add);
+        return saved;
+    }
+
+    private void run(List<RenewalPartition> partitions) {
+        List<Long> ids = new ArrayList<>();
+        for (RenewalPartition partition : partitions) {
+            ids.add(partition.getNumPartition());
+        }
+        current = ids;
+        if (ids.isEmpty()) {
+            return;
+        }
+        running = true;
+        long start = System.currentTimeMillis();
+        CompletableFuture<?>[] futures = ids.stream()
+                .map(id -> CompletableFuture.runAsync(() -> renewPartition(id), workers))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).whenComplete((result, error) -> {
+            running = false;
+            if (error != null) {
+                log.error("Subscription renewal stopped, it resumes at the next start", error);
+            } else {
+                RenewalReport report = report();
+                log.info("Subscription renewal done in " + (System.currentTimeMillis() - start) + " ms : " + report.getRenewed() + " renewed, "
+                        + report.getSkipped() + " skipped");
+            }
+        });
+    }
+
+    private void renewPartition(Long numPartition) {
+        boolean completed = false;
+        while (!completed) {
+            List<Renewal> renewals = new ArrayList<>(chunkSize);
+            completed = transactionTemplate.execute(status -> {
+                RenewalPartition partition = renewalPartitionRepository.findById(numPartition).orElseThrow(IllegalStateException::new);
+                if (partition.isCompleted()) {
+                    return true;
+                }
+                List<Subscription> chunk = subscriptionRepository.findDueForRenewal(partition.getLastNumSub(), partition.getToNumSub(),
+                        partition.getDueFrom(), partition.getDueTo(), PageRequest.of(0, chunkSize));
+                int skipped = 0;
+                for (Subscription subscription : chunk) {
+                    if (subscription.getTypeSub() == null) {
+                        log.warn("Subscription " + subscription.getNumSub() + " has no type, it is not renewed");
+                        skipped++;
+                    } else {
+                        renewals.add(renew(subscription));
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    partition.setLastNumSub(chunk.get(chunk.size() - 1).getNumSub());
+                }
+                partition.setRenewed(partition.getRenewed() + chunk.size() - skipped);
+                partition.setSkipped(partition.getSkipped() + skipped);
+                partition.setCompleted(chunk.size() < chunkSize);
+                partition.setUpdatedAt(LocalDateTime.now());
+                return partition.isCompleted();
+            });
+            for (Renewal renewal : renewals) {
+                expiryWheel.schedule(renewal.getSubscription());
+                revenueAggregate.update(renewal.getPreviousType(), renewal.getPreviousPrice(), renewal.getPreviousEndDate(), renewal.getSubscription());
+            }
+        }
+    }
+
+    /* the new period starts when the current one ends, or today when it already ended,
+     * and ends as in addSubscription */
+    private static Renewal renew(Subscription subscription) {
+        Renewal renewal = new Renewal(subscription, subscription.getTypeSub(), subscription.getPrice(), subscription.getEndDate());
+        LocalDate today = LocalDate.now();
+        subscription.setStartDate(subscription.getEndDate().isBefore(today) ? today : subscription.getEndDate());
+        SubscriptionDates.computeEndDate(subscription);
+        return renewal;
+    }
+
+    @lombok.Value
+    private static class Renewal {
+        Subscription subscription;
+        TypeSubscription previousType;
+        Float previousPrice;
+        LocalDate previousEndDate;
+    }
+}
@@ -4,77 +4,153 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import tn.esprit.spring.entities.Skier;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.dto.RenewalReport;
+import tn.esprit.spring.dto.RevenueReport;
 import tn.esprit.spring.entities.Subscription;
 import tn.esprit.spring.entities.TypeSubscription;
 import tn.esprit.spring.repositories.ISkierRepository;
 import tn.esprit.spring.repositories.ISubscriptionRepository;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @AllArgsConstructor
 @Service
 public class SubscriptionServicesImpl implements ISubscriptionServices{
 
+    private static final int EXPIRY_BATCH_SIZE = 500;
+
     private ISubscriptionRepository subscriptionRepository;
 
     private ISkierRepository skierRepository;
 
+    private SubscriptionExpiryWheel expiryWheel;
+
+    private RevenueAggregate revenueAggregate;
+
+    private SubscriptionRenewalJob renewalJob;
+
     @Override
     public Subscription addSubscription(Subscription subscription) {
-        switch (subscription.getTypeSub()) {
-            case ANNUAL:
-                subscription.setEndDate(subscription.getStartDate().plusYears(1));
-                break;
-            case SEMESTRIEL:
-                subscription.setEndDate(subscription.getStartDate().plusMonths(6));
-                break;
-            case MONTHLY:
-                subscription.setEndDate(subscription.getStartDate().plusMonths(1));
-                break;
-        }
-        return subscriptionRepository.save(subscription);
+        SubscriptionDates.computeEndDate(subscription);
+        Subscription saved = subscriptionRepository.save(subscription);
+        expiryWheel.schedule(saved);
+        revenueAggregate.add(saved);
+        return saved;
     }
 
     @Override
     public Subscription updateSubscription(Subscription subscription) {
-        return subscriptionRepository.save(subscription);
+        Subscription previous = subscription.getNumSub() == null ? null
+                : subscriptionRepository.findById(subscription.getNumSub()).orElse(null);
+        TypeSubscription previousType = previous == null ? null : previous.getTypeSub();
+        Float previousPrice = previous == null ? null : previous.getPrice();
+        LocalDate previousEndDate = previous == null ? null : previous.getEndDate();
+
+        Subscription saved = subscriptionRepository.save(subscription);
+        expiryWheel.schedule(saved);
+        if (previous == null) {
+            revenueAggregate.add(saved);
+        } else {
+            revenueAggregate.update(previousType, previousPrice, previousEndDate, saved);
+        }
+        return saved;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Subscription retrieveSubscriptionById(Long numSubscription) {
         return subscriptionRepository.findById(numSubscription).orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Set<Subscription> getSubscriptionByType(TypeSubscription type) {
         return subscriptionRepository.findByTypeSubOrderByStartDateAsc(type);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Subscription> retrieveSubscriptionsByDates(LocalDate startDate, LocalDate endDate) {
         return subscriptionRepository.getSubscriptionsByStartDateBetween(startDate, endDate);
     }
 
     @Override
-    @Scheduled(cron = "*/30 * * * * *") /* Cron expression to run a job every 30 secondes */
+    @Transactional(readOnly = true)
+    public CursorPage<Subscription> retrieveSubscriptionsPage(String cursor, int size, TypeSubscription type) {
+        long after = CursorPage.decode(cursor);
+        List<Subscription> rows = type == null
+                ? subscriptionRepository.findByNumSubGreaterThanOrderByNumSubAsc(after, CursorPage.limitOf(size))
+                : subscriptionRepository.findByTypeSubAndNumSubGreaterThanOrderByNumSubAsc(type, after, CursorPage.limitOf(size));
+        return CursorPage.of(rows, size, Subscription::getNumSub);
+    }
+
+    @Override
+    @Scheduled(cron = "${subscription.expiry.cron:*/30 * * * * *}") /* Cron expression to run a job every 30 secondes */
     public void retrieveSubscriptions() {
-        for (Subscription sub: subscriptionRepository.findDistinctOrderByEndDateAsc()) {
-            Skier   aSkier = skierRepository.findBySubscription(sub);
-            log.info(sub.getNumSub().toString() + " | "+ sub.getEndDate().toString()
-                    + " | "+ aSkier.getFirstName() + " " + aSkier.getLastName());
+        LocalDate today = LocalDate.now();
+        expiryWheel.refresh(today);
+        List<SubscriptionExpiryWheel.Expiry> due = expiryWheel.pollDue(today);
+        for (int from = 0; from < due.size(); from += EXPIRY_BATCH_SIZE) {
+            List<SubscriptionExpiryWheel.Expiry> batch = due.subList(from, Math.min(from + EXPIRY_BATCH_SIZE, due.size()));
+            List<Long> ids = batch.stream().map(SubscriptionExpiryWheel.Expiry::getNumSub).collect(Collectors.toList());
+            Map<Long, String> names = new HashMap<>();
+            for (Object[] row : skierRepository.findNamesBySubscriptionIds(ids)) {
+                names.put((Long) row[0], row[1] + " " + row[2]);
+            }
+            for (Object[] row : subscriptionRepository.findRevenueByIds(ids)) {
+                revenueAggregate.expire((TypeSubscription) row[1], (Float) row[2]);
+            }
+            for (SubscriptionExpiryWheel.Expiry expiry : batch) {
+                log.info(expiry.getNumSub().toString() + " | " + expiry.getEndDate().toString()
+                        + " | " + names.getOrDefault(expiry.getNumSub(), "-"));
+            }
         }
+        expiryWheel.saveCheckpoint();
     }
 
    // @Scheduled(cron = "* 0 9 1 * *") /* Cron expression to run a job every month at 9am */
     @Scheduled(cron = "*/30 * * * * *") /* Cron expression to run a job every 30 secondes */
     public void showMonthlyRecurringRevenue() {
-        Float revenue = subscriptionRepository.recurringRevenueByTypeSubEquals(TypeSubscription.MONTHLY)
-                + subscriptionRepository.recurringRevenueByTypeSubEquals(TypeSubscription.SEMESTRIEL)/6
-                + subscriptionRepository.recurringRevenueByTypeSubEquals(TypeSubscription.ANNUAL)/12;
-        log.info("Monthly Revenue = " + revenue);
+        log.info("Monthly Revenue = " + revenueAggregate.monthlyRecurringRevenue());
+    }
+
+    /* read from the primary, a lagging replica would undo the latest changes */
+    @Transactional
+    @Scheduled(cron = "${subscription.revenue.reconcile-cron:0 0 * * * *}")
+    public void reconcileRevenue() {
+        revenueAggregate.reconcile();
+    }
+
+    /* disabled unless subscription.renewal.cron is set */
+    @Scheduled(cron = "${subscription.renewal.cron:-}")
+    public void renewSubscriptions() {
+        renewalJob.start(renewalWindowDays());
+    }
+
+    @Override
+    public RenewalReport startRenewal(Integer windowDays) {
+        return renewalJob.start(windowDays == null ? renewalWindowDays() : windowDays);
+    }
+
+    @Override
+    public RenewalReport retrieveRenewal() {
+        return renewalJob.report();
+    }
+
+    private int renewalWindowDays() {
+        return renewalJob.getWindowDays();
+    }
+
+    @Override
+    public RevenueReport retrieveRevenue() {
+        return new RevenueReport(revenueAggregate.monthlyRecurringRevenue(), revenueAggregate.breakdown());
     }
 }
@@ -0,0 +1,318 @@
+package tn.esprit.spring.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.dto.WaitlistPosition;
+import tn.esprit.spring.entities.*;
+import tn.esprit.spring.metrics.MetricsRegistry;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IWaitlistRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/* FIFO waitlists per (course, week), persisted and mirrored in memory, the mirror is reloaded by every
+ * sweep so that each instance sees the entries of the others. Freed seats are signalled
+ * to a single promoter thread which takes the seat in the SeatInventory, inserts the registration and
+ * closes the entry in one transaction. Closing only succeeds on a waiting entry, so an entry cancelled
+ * meanwhile is never promoted and a promoted entry is never promoted twice. Queues are kept once
+ * created, there is at most one per course week. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Waitlist {
+
+    private final IWaitlistRepository waitlistRepository;
+    private final ICourseRepository courseRepository;
+    private final SeatInventory seatInventory;
+    private final InstructorWeekIndex instructorWeekIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final MetricsRegistry metricsRegistry;
+
+    private final ConcurrentMap<SeatKey, Deque<WaitlistEntry>> queues = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, WaitlistEntry> waiting = new ConcurrentHashMap<>();
+    private final BlockingQueue<SeatKey> freed = new LinkedBlockingQueue<>();
+    private final Set<SeatKey> signalled = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Integer> failures = new ConcurrentHashMap<>();
+    private Thread promoter;
+    private volatile boolean running;
+    private LongAdder joined;
+    private LongAdder promoted;
+    private LongAdder cancelled;
+
+    @Value("${registration.waitlist.max-attempts:3}")
+    private int maxAttempts;
+
+    @PostConstruct
+    public void start() {
+        reload();
+        joined = metricsRegistry.counter("waitlist_events_total", MetricsRegistry.label("event", "joined"));
+        promoted = metricsRegistry.counter("waitlist_events_total", MetricsRegistry.label("event", "promoted"));
+        cancelled = metricsRegistry.counter("waitlist_events_total", MetricsRegistry.label("event", "cancelled"));
+        metricsRegistry.gauge("waitlist_waiting", "", waiting::size);
+        log.info("Waitlist loaded : " + waiting.size() + " skiers waiting on " + queues.size() + " course weeks");
+        running = true;
+        promoter = new Thread(this::promote, "waitlist-promoter");
+        promoter.setDaemon(true);
+        promoter.start();
+        sweep();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        promoter.interrupt();
+    }
+
+    /* the skier's current entry when already waiting for that course week */
+    public WaitlistPosition join(Long numSkier, Course course, int numWeek) {
+        SeatKey key = new SeatKey(course.getNumCourse(), numWeek);
+        Deque<WaitlistEntry> queue = queueOf(key);
+        WaitlistEntry entry;
+        synchronized (queue) {
+            for (WaitlistEntry queued : queue) {
+                if (queued.getNumSkier().equals(numSkier)) {
+                    return positionOf(queued);
+                }
+            }
+            entry = waitlistRepository.save(new WaitlistEntry(null, numSkier, course.getNumCourse(), numWeek,
+                    LocalDateTime.now(), WaitlistStatus.WAITING, null));
+            queue.addLast(entry);
+            waiting.put(entry.getNumEntry(), entry);
+        }
+        joined.increment();
+        seatFreed(course.getNumCourse(), numWeek);
+        return positionOf(entry);
+    }
+
+    /* the entry may have been created by another instance, the database decides */
+    public WaitlistPosition leave(Long numEntry) {
+        if (waitlistRepository.close(numEntry, WaitlistStatus.CANCELLED, null) == 1) {
+            cancelled.increment();
+            WaitlistEntry entry = waiting.get(numEntry);
+            if (entry != null) {
+                drop(queueOf(keyOf(entry)), entry);
+            }
+        }
+        return position(numEntry);
+    }
+
+    public WaitlistPosition position(Long numEntry) {
+        WaitlistEntry entry = waiting.get(numEntry);
+        if (entry != null) {
+            return positionOf(entry);
+        }
+        return waitlistRepository.findById(numEntry).map(this::positionOf).orElse(null);
+    }
+
+    public void seatFreed(Long numCourse, int numWeek) {
+        SeatKey key = new SeatKey(numCourse, numWeek);
+        if (queues.containsKey(key) && signalled.add(key)) {
+            freed.offer(key);
+        }
+    }
+
+    /* a capacity change can free seats in every week of the course */
+    public void courseChanged(Long numCourse) {
+        for (SeatKey key : queues.keySet()) {
+            if (key.getNumCourse().equals(numCourse)) {
+                seatFreed(key.getNumCourse(), key.getNumWeek());
+            }
+        }
+    }
+
+    /* catches the entries joined or closed on other instances, the seats freed without a signal,
+     * and the promotions that failed */
+    @Scheduled(fixedDelayString = "${registration.waitlist.sweep-ms:30000}")
+    public void sweep() {
+        reload();
+        for (SeatKey key : queues.keySet()) {
+            seatFreed(key.getNumCourse(), key.getNumWeek());
+        }
+    }
+
+    /* the queues follow the waiting entries of the database, in their FIFO order. An entry missing from
+     * the database read was either closed or joined on this instance after the read, it is only dropped
+     * once the database says it is closed. */
+    private void reload() {
+        Map<SeatKey, List<WaitlistEntry>> loaded = new HashMap<>();
+        Set<Long> loadedIds = new HashSet<>();
+        for (WaitlistEntry entry : waitlistRepository.findByStatusOrderByRequestedAtAscNumEntryAsc(WaitlistStatus.WAITING)) {
+            loaded.computeIfAbsent(keyOf(entry), k -> new ArrayList<>()).add(entry);
+            loadedIds.add(entry.getNumEntry());
+        }
+        for (WaitlistEntry entry : new ArrayList<>(waiting.values())) {
+            if (!loadedIds.contains(entry.getNumEntry()) && statusOf(entry) != WaitlistStatus.WAITING) {
+                drop(queueOf(keyOf(entry)), entry);
+            }
+        }
+        for (Map.Entry<SeatKey, List<WaitlistEntry>> entries : loaded.entrySet()) {
+            Deque<WaitlistEntry> queue = queueOf(entries.getKey());
+            synchronized (queue) {
+                List<WaitlistEntry> joinedHere = new ArrayList<>();
+                for (WaitlistEntry queued : queue) {
+                    if (!loadedIds.contains(queued.getNumEntry())) {
+                        joinedHere.add(queued);
+                    }
+                }
+                queue.clear();
+                for (WaitlistEntry entry : entries.getValue()) {
+                    /* the entry already queued is kept, positions are looked up by identity */
+                    WaitlistEntry known = waiting.putIfAbsent(entry.getNumEntry(), entry);
+                    queue.addLast(known != null ? known : entry);
+                }
+                joinedHere.forEach(queue::addLast);
+            }
+        }
+    }
+
+    private void promote() {
+        while (running) {
+            try {
+                SeatKey key = freed.take();
+                signalled.remove(key);
+                promote(key);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Waitlist promotion failed", e);
+            }
+        }
+    }
+
+    private void promote(SeatKey key) {
+        Deque<WaitlistEntry> queue = queueOf(key);
+        Course course = courseRepository.findById(key.getNumCourse()).orElse(null);
+        while (course != null) {
+            WaitlistEntry head;
+            synchronized (queue) {
+                head = queue.peekFirst();
+            }
+            if (head == null) {
+                return;
+            }
+            Promotion promotion;
+            try {
+                promotion = transactionTemplate.execute(status -> insert(head, course, status));
+            } catch (RuntimeException e) {
+                int attempts = failures.merge(head.getNumEntry(), 1, Integer::sum);
+                if (e instanceof DataIntegrityViolationException || attempts >= maxAttempts) {
+                    /* a deleted skier or a row that keeps failing would block the queue on every sweep */
+                    log.warn("Promotion of waitlist entry " + head.getNumEntry() + " failed " + attempts + " times, entry cancelled", e);
+                    failures.remove(head.getNumEntry());
+                    close(queue, head, WaitlistStatus.CANCELLED, null);
+                    continue;
+                }
+                log.warn("Promotion of waitlist entry " + head.getNumEntry() + " rolled back, retried on the next sweep", e);
+                return;
+            }
+            failures.remove(head.getNumEntry());
+            if (promotion.getOutcome() == SeatInventory.Outcome.FULL) {
+                return;
+            }
+            if (promotion.getOutcome() == SeatInventory.Outcome.DUPLICATE) {
+                /* registered for that week in the meantime */
+                close(queue, head, WaitlistStatus.CANCELLED, null);
+                continue;
+            }
+            drop(queue, head);
+            if (promotion.getNumRegistration() == null) {
+                /* closed meanwhile, by a cancellation or by another instance */
+                continue;
+            }
+            instructorWeekIndex.registrationAdded(course, key.getNumWeek());
+            promoted.increment();
+            log.info("Waitlist entry " + head.getNumEntry() + " promoted to registration " + promotion.getNumRegistration());
+        }
+    }
+
+    /* the seat, the registration and the closing of the entry commit together */
+    private Promotion insert(WaitlistEntry entry, Course course, TransactionStatus status) {
+        SeatInventory.Outcome outcome = seatInventory.reserve(course, entry.getNumWeek(), entry.getNumSkier());
+        if (outcome != SeatInventory.Outcome.RESERVED) {
+            return new Promotion(outcome, null);
+        }
+        Registration registration = new Registration();
+        registration.setNumWeek(entry.getNumWeek());
+        registration.setSkier(entityManager.getReference(Skier.class, entry.getNumSkier()));
+        registration.setCourse(course);
+        entityManager.persist(registration);
+        if (waitlistRepository.close(entry.getNumEntry(), WaitlistStatus.PROMOTED, registration.getNumRegistration()) == 0) {
+            status.setRollbackOnly();
+            return new Promotion(outcome, null);
+        }
+        return new Promotion(outcome, registration.getNumRegistration());
+    }
+
+    private void close(Deque<WaitlistEntry> queue, WaitlistEntry entry, WaitlistStatus status, Long numRegistration) {
+        synchronized (queue) {
+            waitlistRepository.close(entry.getNumEntry(), status, numRegistration);
+            drop(queue, entry);
+        }
+    }
+
+    private void drop(Deque<WaitlistEntry> queue, WaitlistEntry entry) {
+        synchronized (queue) {
+            queue.remove(entry);
+            waiting.remove(entry.getNumEntry());
+        }
+    }
+
+    private WaitlistPosition positionOf(WaitlistEntry entry) {
+        int position = 0;
+        if (entry.getStatus() == WaitlistStatus.WAITING && waiting.containsKey(entry.getNumEntry())) {
+            Deque<WaitlistEntry> queue = queueOf(keyOf(entry));
+            synchronized (queue) {
+                int index = 1;
+                for (WaitlistEntry queued : queue) {
+                    if (queued == entry) {
+                        position = index;
+                        break;
+                    }
+                    index++;
+                }
+            }
+        }
+        return new WaitlistPosition(entry.getNumEntry(), entry.getNumSkier(), entry.getNumCourse(), entry.getNumWeek(),
+                position == 0 && entry.getStatus() == WaitlistStatus.WAITING ? statusOf(entry) : entry.getStatus(),
+                position, entry.getNumRegistration());
+    }
+
+    /* an entry that just left the queue : its final status is in the database */
+    private WaitlistStatus statusOf(WaitlistEntry entry) {
+        return waitlistRepository.findById(entry.getNumEntry()).map(WaitlistEntry::getStatus).orElse(WaitlistStatus.CANCELLED);
+    }
+
+    private Deque<WaitlistEntry> queueOf(SeatKey key) {
+        return queues.computeIfAbsent(key, k -> new ArrayDeque<>());
+    }
+
+    private static SeatKey keyOf(WaitlistEntry entry) {
+        return new SeatKey(entry.getNumCourse(), entry.getNumWeek());
+    }
+
+    @lombok.Value
+    private static class Promotion {
+        SeatInventory.Outcome outcome;
+        Long numRegistration;
+    }
+
+    @lombok.Value
+    private static class SeatKey {
+        Long numCourse;
+        int numWeek;
+    }
+}
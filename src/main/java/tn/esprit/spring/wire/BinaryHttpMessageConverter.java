@@ -0,0 +1,105 @@
+package tn.esprit.spring.wire;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/* Binary encoding of the skier, subscription and registration payloads, and of collections of them,
+ * negotiated with Accept / Content-Type: application/x-stationski-binary. JSON stays the default. */
+public class BinaryHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "x-stationski-binary");
+
+    public BinaryHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return WireCodecs.forClass(clazz) != null;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return elementCodec(type) != null && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return elementCodec(type != null ? type : clazz) != null && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        WireCodec<Object> codec = elementCodec(type);
+        List<Object> values;
+        try {
+            values = WireCodecs.decode(StreamUtils.copyToByteArray(inputMessage.getBody()), codec);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Malformed binary message : " + e.getMessage(), e, inputMessage);
+        }
+        Class<?> raw = rawClass(type);
+        if (raw != null && Collection.class.isAssignableFrom(raw)) {
+            return Set.class.isAssignableFrom(raw) ? new LinkedHashSet<>(values) : values;
+        }
+        if (values.size() != 1) {
+            throw new HttpMessageNotReadableException("Expected one record but got " + values.size(), inputMessage);
+        }
+        return values.get(0);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        WireOutput out;
+        try {
+            out = WireCodecs.encode(body);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotWritableException(e.getMessage(), e);
+        }
+        outputMessage.getHeaders().setContentLength(out.size());
+        out.writeTo(outputMessage.getBody());
+    }
+
+    /* codec of T, List<T> or Set<T> */
+    private static WireCodec<Object> elementCodec(Type type) {
+        if (type instanceof Class) {
+            return WireCodecs.forClass((Class<?>) type);
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Class<?> raw = rawClass(parameterized);
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (raw != null && Collection.class.isAssignableFrom(raw) && arguments.length == 1 && arguments[0] instanceof Class) {
+                return WireCodecs.forClass((Class<?>) arguments[0]);
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() instanceof Class) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,10 @@
+package tn.esprit.spring.wire;
+
+/* Hand-written encoding of one record type : fields are written in a fixed order, the schema
+ * lives in the code, and new fields may only be appended */
+public interface WireCodec<T> {
+
+    void write(WireOutput out, T value);
+
+    T read(WireInput in);
+}
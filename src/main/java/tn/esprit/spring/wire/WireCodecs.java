@@ -0,0 +1,302 @@
+package tn.esprit.spring.wire;
+
+import tn.esprit.spring.dto.RegistrationDTO;
+import tn.esprit.spring.dto.SkierDTO;
+import tn.esprit.spring.entities.Registration;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.TypeSubscription;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Codecs of the payloads exchanged with the lift gates and kiosks. Every record starts with a varint
+ * telling which nullable fields are present, then the present fields in declaration order.
+ * A message is a version byte, a record count and the length-prefixed records. */
+public final class WireCodecs {
+
+    public static final int VERSION = 1;
+
+    private static final TypeSubscription[] TYPES = TypeSubscription.values();
+
+    public static final WireCodec<Subscription> SUBSCRIPTION = new WireCodec<Subscription>() {
+        @Override
+        public void write(WireOutput out, Subscription value) {
+            out.writeVarLong(bit(0, value.getNumSub()) | bit(1, value.getStartDate()) | bit(2, value.getEndDate())
+                    | bit(3, value.getPrice()) | bit(4, value.getTypeSub()));
+            if (value.getNumSub() != null) {
+                out.writeVarLong(value.getNumSub());
+            }
+            if (value.getStartDate() != null) {
+                out.writeDate(value.getStartDate());
+            }
+            if (value.getEndDate() != null) {
+                out.writeDate(value.getEndDate());
+            }
+            if (value.getPrice() != null) {
+                out.writeFloat(value.getPrice());
+            }
+            if (value.getTypeSub() != null) {
+                out.writeVarLong(value.getTypeSub().ordinal());
+            }
+        }
+
+        @Override
+        public Subscription read(WireInput in) {
+            long present = in.readVarLong();
+            Subscription value = new Subscription();
+            if (has(present, 0)) {
+                value.setNumSub(in.readVarLong());
+            }
+            if (has(present, 1)) {
+                value.setStartDate(in.readDate());
+            }
+            if (has(present, 2)) {
+                value.setEndDate(in.readDate());
+            }
+            if (has(present, 3)) {
+                value.setPrice(in.readFloat());
+            }
+            if (has(present, 4)) {
+                value.setTypeSub(TYPES[ordinal(in, TYPES.length)]);
+            }
+            return value;
+        }
+    };
+
+    public static final WireCodec<Registration> REGISTRATION = new WireCodec<Registration>() {
+        @Override
+        public void write(WireOutput out, Registration value) {
+            out.writeVarLong(bit(0, value.getNumRegistration()));
+            if (value.getNumRegistration() != null) {
+                out.writeVarLong(value.getNumRegistration());
+            }
+            out.writeZigZag(value.getNumWeek());
+        }
+
+        @Override
+        public Registration read(WireInput in) {
+            long present = in.readVarLong();
+            Registration value = new Registration();
+            if (has(present, 0)) {
+                value.setNumRegistration(in.readVarLong());
+            }
+            value.setNumWeek((int) in.readZigZag());
+            return value;
+        }
+    };
+
+    public static final WireCodec<RegistrationDTO> REGISTRATION_DTO = new WireCodec<RegistrationDTO>() {
+        @Override
+        public void write(WireOutput out, RegistrationDTO value) {
+            out.writeVarLong(bit(0, value.getNumRegistration()));
+            if (value.getNumRegistration() != null) {
+                out.writeVarLong(value.getNumRegistration());
+            }
+            out.writeZigZag(value.getNumWeek());
+        }
+
+        @Override
+        public RegistrationDTO read(WireInput in) {
+            long present = in.readVarLong();
+            RegistrationDTO value = new RegistrationDTO();
+            if (has(present, 0)) {
+                value.setNumRegistration(in.readVarLong());
+            }
+            value.setNumWeek((int) in.readZigZag());
+            return value;
+        }
+    };
+
+    /* request body of the skier endpoints, the registrations are created through the registration endpoints */
+    public static final WireCodec<Skier> SKIER = new WireCodec<Skier>() {
+        @Override
+        public void write(WireOutput out, Skier value) {
+            out.writeVarLong(bit(0, value.getNumSkier()) | bit(1, value.getFirstName()) | bit(2, value.getLastName())
+                    | bit(3, value.getDateOfBirth()) | bit(4, value.getCity()) | bit(5, value.getSubscription()));
+            if (value.getNumSkier() != null) {
+                out.writeVarLong(value.getNumSkier());
+            }
+            if (value.getFirstName() != null) {
+                out.writeString(value.getFirstName());
+            }
+            if (value.getLastName() != null) {
+                out.writeString(value.getLastName());
+            }
+            if (value.getDateOfBirth() != null) {
+                out.writeDate(value.getDateOfBirth());
+            }
+            if (value.getCity() != null) {
+                out.writeString(value.getCity());
+            }
+            if (value.getSubscription() != null) {
+                out.writeRecord(SUBSCRIPTION, value.getSubscription());
+            }
+        }
+
+        @Override
+        public Skier read(WireInput in) {
+            long present = in.readVarLong();
+            Skier value = new Skier();
+            if (has(present, 0)) {
+                value.setNumSkier(in.readVarLong());
+            }
+            if (has(present, 1)) {
+                value.setFirstName(in.readString());
+            }
+            if (has(present, 2)) {
+                value.setLastName(in.readString());
+            }
+            if (has(present, 3)) {
+                value.setDateOfBirth(in.readDate());
+            }
+            if (has(present, 4)) {
+                value.setCity(in.readString());
+            }
+            if (has(present, 5)) {
+                value.setSubscription(in.readRecord(SUBSCRIPTION));
+            }
+            return value;
+        }
+    };
+
+    public static final WireCodec<SkierDTO> SKIER_DTO = new WireCodec<SkierDTO>() {
+        @Override
+        public void write(WireOutput out, SkierDTO value) {
+            out.writeVarLong(bit(0, value.getNumSkier()) | bit(1, value.getFirstName()) | bit(2, value.getLastName())
+                    | bit(3, value.getDateOfBirth()) | bit(4, value.getCity()) | bit(5, value.getSubscription())
+                    | bit(6, value.getRegistrations()));
+            if (value.getNumSkier() != null) {
+                out.writeVarLong(value.getNumSkier());
+            }
+            if (value.getFirstName() != null) {
+                out.writeString(value.getFirstName());
+            }
+            if (value.getLastName() != null) {
+                out.writeString(value.getLastName());
+            }
+            if (value.getDateOfBirth() != null) {
+                out.writeDate(value.getDateOfBirth());
+            }
+            if (value.getCity() != null) {
+                out.writeString(value.getCity());
+            }
+            if (value.getSubscription() != null) {
+                out.writeRecord(SUBSCRIPTION, value.getSubscription());
+            }
+            if (value.getRegistrations() != null) {
+                out.writeList(REGISTRATION_DTO, value.getRegistrations());
+            }
+        }
+
+        @Override
+        public SkierDTO read(WireInput in) {
+            long present = in.readVarLong();
+            SkierDTO value = new SkierDTO();
+            if (has(present, 0)) {
+                value.setNumSkier(in.readVarLong());
+            }
+            if (has(present, 1)) {
+                value.setFirstName(in.readString());
+            }
+            if (has(present, 2)) {
+                value.setLastName(in.readString());
+            }
+            if (has(present, 3)) {
+                value.setDateOfBirth(in.readDate());
+            }
+            if (has(present, 4)) {
+                value.setCity(in.readString());
+            }
+            if (has(present, 5)) {
+                value.setSubscription(in.readRecord(SUBSCRIPTION));
+            }
+            if (has(present, 6)) {
+                value.setRegistrations(in.readList(REGISTRATION_DTO));
+            }
+            return value;
+        }
+    };
+
+    private static final Map<Class<?>, WireCodec<?>> CODECS = new HashMap<>();
+
+    static {
+        CODECS.put(Subscription.class, SUBSCRIPTION);
+        CODECS.put(Registration.class, REGISTRATION);
+        CODECS.put(RegistrationDTO.class, REGISTRATION_DTO);
+        CODECS.put(Skier.class, SKIER);
+        CODECS.put(SkierDTO.class, SKIER_DTO);
+    }
+
+    private WireCodecs() {
+    }
+
+    /* walks up the hierarchy, entities may come as Hibernate proxies */
+    @SuppressWarnings("unchecked")
+    public static <T> WireCodec<T> forClass(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            WireCodec<?> codec = CODECS.get(current);
+            if (codec != null) {
+                return (WireCodec<T>) codec;
+            }
+        }
+        return null;
+    }
+
+    /* a single value is encoded as a message of one record */
+    @SuppressWarnings("unchecked")
+    public static WireOutput encode(Object body) {
+        WireOutput out = new WireOutput(256);
+        out.writeByte(VERSION);
+        if (body instanceof Collection) {
+            Collection<?> values = (Collection<?>) body;
+            out.writeVarLong(values.size());
+            for (Object value : values) {
+                out.writeRecord((WireCodec<Object>) codecOf(value), value);
+            }
+        } else {
+            out.writeVarLong(1);
+            out.writeRecord((WireCodec<Object>) codecOf(body), body);
+        }
+        return out;
+    }
+
+    public static <T> List<T> decode(byte[] message, WireCodec<T> codec) {
+        WireInput in = new WireInput(message);
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported wire format version " + version);
+        }
+        List<T> values = in.readList(codec);
+        if (in.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes after the last record");
+        }
+        return values;
+    }
+
+    private static WireCodec<?> codecOf(Object value) {
+        WireCodec<?> codec = value == null ? null : forClass(value.getClass());
+        if (codec == null) {
+            throw new IllegalArgumentException("No binary encoding for " + (value == null ? "null" : value.getClass().getName()));
+        }
+        return codec;
+    }
+
+    private static int ordinal(WireInput in, int count) {
+        long ordinal = in.readVarLong();
+        if (ordinal < 0 || ordinal >= count) {
+            throw new IllegalArgumentException("Unknown enum ordinal " + ordinal);
+        }
+        return (int) ordinal;
+    }
+
+    private static long bit(int index, Object field) {
+        return field == null ? 0 : 1L << index;
+    }
+
+    private static boolean has(long present, int index) {
+        return (present & (1L << index)) != 0;
+    }
+}
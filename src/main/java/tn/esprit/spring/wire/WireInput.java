@@ -0,0 +1,101 @@
+package tn.esprit.spring.wire;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Reader of the binary wire format, see WireOutput. Malformed input raises an IllegalArgumentException. */
+public final class WireInput {
+
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+
+    public WireInput(byte[] buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.length;
+    }
+
+    public int readByte() {
+        if (position >= limit) {
+            throw new IllegalArgumentException("Truncated message at byte " + position);
+        }
+        return buffer[position++];
+    }
+
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at byte " + position);
+    }
+
+    public int readLength() {
+        long length = readVarLong();
+        if (length < 0 || length > limit - position) {
+            throw new IllegalArgumentException("Length " + length + " past the end of the message at byte " + position);
+        }
+        return (int) length;
+    }
+
+    public long readZigZag() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public float readFloat() {
+        int bits = (readByte() & 0xFF)
+                | (readByte() & 0xFF) << 8
+                | (readByte() & 0xFF) << 16
+                | (readByte() & 0xFF) << 24;
+        return Float.intBitsToFloat(bits);
+    }
+
+    public LocalDate readDate() {
+        long epochDay = readZigZag();
+        try {
+            return LocalDate.ofEpochDay(epochDay);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Date out of range at byte " + position, e);
+        }
+    }
+
+    public String readString() {
+        int length = readLength();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    /* fields appended by a newer schema are skipped */
+    public <T> T readRecord(WireCodec<T> codec) {
+        int length = readLength();
+        int end = position + length;
+        int outer = limit;
+        limit = end;
+        T value = codec.read(this);
+        position = end;
+        limit = outer;
+        return value;
+    }
+
+    public <T> List<T> readList(WireCodec<T> codec) {
+        int count = readLength();
+        List<T> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readRecord(codec));
+        }
+        return values;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+}
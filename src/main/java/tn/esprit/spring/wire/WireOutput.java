@@ -0,0 +1,122 @@
+package tn.esprit.spring.wire;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+/* Growable buffer of the binary wire format : varints, zigzag varints for signed values,
+ * little-endian floats, length-prefixed UTF-8 strings and length-prefixed records */
+public final class WireOutput {
+
+    private byte[] buffer;
+    private int size;
+
+    public WireOutput(int capacity) {
+        buffer = new byte[Math.max(16, capacity)];
+    }
+
+    public void writeByte(int value) {
+        ensure(1);
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeZigZag(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeFloat(float value) {
+        int bits = Float.floatToIntBits(value);
+        ensure(4);
+        buffer[size++] = (byte) bits;
+        buffer[size++] = (byte) (bits >>> 8);
+        buffer[size++] = (byte) (bits >>> 16);
+        buffer[size++] = (byte) (bits >>> 24);
+    }
+
+    public void writeDate(LocalDate value) {
+        writeZigZag(value.toEpochDay());
+    }
+
+    /* ASCII strings, the usual case for names and cities, are copied without an intermediate array */
+    public void writeString(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(utf8.length);
+                ensure(utf8.length);
+                System.arraycopy(utf8, 0, buffer, size, utf8.length);
+                size += utf8.length;
+                return;
+            }
+        }
+        writeVarLong(length);
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) value.charAt(i);
+        }
+    }
+
+    /* one byte is reserved for the length, the record is moved in the rare case it needs more */
+    public <T> void writeRecord(WireCodec<T> codec, T value) {
+        ensure(1);
+        int start = size++;
+        codec.write(this, value);
+        int length = size - start - 1;
+        int prefix = varLongSize(length);
+        if (prefix > 1) {
+            ensure(prefix - 1);
+            System.arraycopy(buffer, start + 1, buffer, start + prefix, length);
+        }
+        int end = start + prefix + length;
+        size = start;
+        writeVarLong(length);
+        size = end;
+    }
+
+    public <T> void writeList(WireCodec<T> codec, Collection<? extends T> values) {
+        writeVarLong(values.size());
+        for (T value : values) {
+            writeRecord(codec, value);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+
+    private static int varLongSize(long value) {
+        int bytes = 1;
+        while ((value & ~0x7FL) != 0) {
+            bytes++;
+            value >>>= 7;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,133 @@
+-- Schema generated so far by ddl-auto=update. Existing databases are baselined at this version.
+
+create table course (
+    num_course bigint not null auto_increment,
+    level integer not null,
+    type_course varchar(255),
+    support varchar(255),
+    price float,
+    time_slot integer not null,
+    capacity integer,
+    primary key (num_course)
+) engine=InnoDB;
+
+create table instructor (
+    num_instructor bigint not null auto_increment,
+    first_name varchar(255),
+    last_name varchar(255),
+    date_of_hire date,
+    primary key (num_instructor)
+) engine=InnoDB;
+
+create table instructor_courses (
+    instructor_num_instructor bigint not null,
+    courses_num_course bigint not null,
+    primary key (instructor_num_instructor, courses_num_course),
+    constraint uk_instructor_courses_course unique (courses_num_course),
+    constraint fk_instructor_courses_instructor foreign key (instructor_num_instructor) references instructor (num_instructor),
+    constraint fk_instructor_courses_course foreign key (courses_num_course) references course (num_course)
+) engine=InnoDB;
+
+create table piste (
+    num_piste bigint not null auto_increment,
+    name_piste varchar(255),
+    color varchar(255),
+    length integer not null,
+    slope integer not null,
+    primary key (num_piste)
+) engine=InnoDB;
+
+create table subscription (
+    num_sub bigint not null,
+    start_date date,
+    end_date date,
+    price float,
+    type_sub integer,
+    primary key (num_sub)
+) engine=InnoDB;
+
+create table skier (
+    num_skier bigint not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    date_of_birth date,
+    city varchar(255),
+    subscription_num_sub bigint,
+    primary key (num_skier),
+    constraint fk_skier_subscription foreign key (subscription_num_sub) references subscription (num_sub)
+) engine=InnoDB;
+
+create table excursion (
+    num_skier bigint not null,
+    num_piste bigint not null,
+    primary key (num_skier, num_piste),
+    constraint fk_excursion_skier foreign key (num_skier) references skier (num_skier),
+    constraint fk_excursion_piste foreign key (num_piste) references piste (num_piste)
+) engine=InnoDB;
+
+create table registration (
+    num_registration bigint not null,
+    num_week integer not null,
+    skier_num_skier bigint,
+    course_num_course bigint,
+    primary key (num_registration),
+    constraint fk_registration_skier foreign key (skier_num_skier) references skier (num_skier),
+    constraint fk_registration_course foreign key (course_num_course) references course (num_course)
+) engine=InnoDB;
+
+create table lift_scan (
+    num_scan bigint not null,
+    num_skier bigint,
+    num_piste bigint,
+    scanned_at datetime(6),
+    primary key (num_scan)
+) engine=InnoDB;
+
+create index idx_lift_scan_time on lift_scan (scanned_at);
+
+create table revenue_summary (
+    type_sub varchar(255) not null,
+    total_price double precision not null,
+    active_count bigint not null,
+    updated_at datetime(6),
+    primary key (type_sub)
+) engine=InnoDB;
+
+create table waitlist_entry (
+    num_entry bigint not null,
+    num_skier bigint,
+    num_course bigint,
+    num_week integer not null,
+    requested_at datetime(6),
+    status varchar(255),
+    num_registration bigint,
+    primary key (num_entry)
+) engine=InnoDB;
+
+create index idx_waitlist_status on waitlist_entry (status);
+
+create table renewal_partition (
+    num_partition bigint not null,
+    due_from date,
+    due_to date,
+    last_num_sub bigint,
+    to_num_sub bigint,
+    renewed bigint not null,
+    completed bit not null,
+    updated_at datetime(6),
+    primary key (num_partition)
+) engine=InnoDB;
+
+-- MySQL has no sequences, the pooled generators read and bump these single-row tables
+create table skier_seq (next_val bigint) engine=InnoDB;
+insert into skier_seq values (1);
+create table subscription_seq (next_val bigint) engine=InnoDB;
+insert into subscription_seq values (1);
+create table registration_seq (next_val bigint) engine=InnoDB;
+insert into registration_seq values (1);
+create table lift_scan_seq (next_val bigint) engine=InnoDB;
+insert into lift_scan_seq values (1);
+create table waitlist_seq (next_val bigint) engine=InnoDB;
+insert into waitlist_seq values (1);
+create table renewal_partition_seq (next_val bigint) engine=InnoDB;
+insert into renewal_partition_seq values (1);
@@ -0,0 +1,8 @@
+-- Instances running ddl-auto=update may have created the table already.
+
+create table if not exists expiry_checkpoint (
+    id integer not null,
+    processed_through date,
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,7 @@
+-- Instances running ddl-auto=update may have created the table already, the rows are created at startup.
+
+create table if not exists catalog_version (
+    catalog varchar(255) not null,
+    version bigint not null,
+    primary key (catalog)
+) engine=InnoDB;
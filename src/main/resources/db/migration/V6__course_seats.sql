@@ -0,0 +1,9 @@
+-- Instances running ddl-auto=update may have created the table already.
+-- The rows are created on the first booking of each course week, from the registrations count.
+
+create table if not exists course_seats (
+    num_course bigint not null,
+    num_week integer not null,
+    taken integer not null,
+    primary key (num_course, num_week)
+) engine=InnoDB;
@@ -0,0 +1,233 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.dto.BookingOutcome;
+import tn.esprit.spring.dto.BookingTicket;
+import tn.esprit.spring.dto.WaitlistPosition;
+import tn.esprit.spring.entities.*;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+import tn.esprit.spring.repositories.ISkierRepository;
+import tn.esprit.spring.repositories.IWaitlistRepository;
+import tn.esprit.spring.services.IRegistrationServices;
+import tn.esprit.spring.services.ISkierServices;
+import tn.esprit.spring.services.SeatInventory;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+
+/* Bookings of the same course week from several threads : the seats and the registrations must agree
+ * whatever the interleaving. A database of its own, with a lock timeout longer than the contended
+ * transactions, and fewer threads than pooled connections since the first booking of a course week
+ * creates its seat row in a second transaction. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stationSkiBookings;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "registration.async.workers=1",
+        "registration.waitlist.sweep-ms=3600000",
+        "subscription.expiry.cron=-"})
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingConcurrencyTests {
+
+    private static final int THREADS = 8;
+    private static final long MISSING_SKIER = 999_999L;
+
+    @Autowired
+    private ISkierServices skierServices;
+    @Autowired
+    private IRegistrationServices registrationServices;
+    @Autowired
+    private SeatInventory seatInventory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ICourseRepository courseRepository;
+    @Autowired
+    private IRegistrationRepository registrationRepository;
+    @Autowired
+    private IWaitlistRepository waitlistRepository;
+    @SpyBean
+    private ISkierRepository skierRepository;
+
+    @Test
+    void reserveNeverSellsMoreThanTheCapacity() throws Exception {
+        Course course = course(3);
+        List<Long> skiers = skiers(THREADS);
+        List<SeatInventory.Outcome> outcomes = concurrently(skiers, numSkier ->
+                transactionTemplate.execute(status -> seatInventory.reserve(course, 1, numSkier)));
+
+        assertEquals(3, Collections.frequency(outcomes, SeatInventory.Outcome.RESERVED));
+        assertEquals(THREADS - 3, Collections.frequency(outcomes, SeatInventory.Outcome.FULL));
+        assertEquals(3, seatInventory.seatsTaken(course.getNumCourse(), 1));
+    }
+
+    @Test
+    void sameSkierIsRegisteredOnce() throws Exception {
+        Course course = course(THREADS);
+        Long numSkier = skiers(1).get(0);
+        List<Registration> registrations = concurrently(Collections.nCopies(THREADS, numSkier), skier ->
+                registrationServices.addRegistrationAndAssignToSkierAndCourse(registration(1), skier, course.getNumCourse()));
+
+        assertEquals(1, registrations.stream().filter(Objects::nonNull).count());
+        assertEquals(1, registrationRepository.countDistinctByNumWeekAndSkier_NumSkierAndCourse_NumCourse(1, numSkier, course.getNumCourse()));
+        assertEquals(1, seatInventory.seatsTaken(course.getNumCourse(), 1));
+    }
+
+    /* the unknown skier passes the validation but fails the insert on its foreign key : the batch rolls
+     * back and its registrations are inserted one by one. The first ticket holds the worker until the
+     * others are queued, so that they are drained in one batch. */
+    @Test
+    void rolledBackBatchFailsOnlyTheBadBooking() throws Exception {
+        Course course = course(10);
+        List<Long> skiers = skiers(5);
+        CountDownLatch queued = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            if (ids.contains(skiers.get(0))) {
+                queued.await(10, TimeUnit.SECONDS);
+            }
+            List<Object[]> rows = new ArrayList<>((List<Object[]>) invocation.callRealMethod());
+            if (ids.contains(MISSING_SKIER)) {
+                rows.add(new Object[]{MISSING_SKIER, LocalDate.now().minusYears(20)});
+            }
+            return rows;
+        }).when(skierRepository).findBirthDatesByIds(anyCollection());
+
+        BookingTicket first = registrationServices.submitRegistration(registration(1), skiers.get(0), course.getNumCourse());
+        List<BookingTicket> batch = new ArrayList<>();
+        for (Long numSkier : skiers.subList(1, skiers.size())) {
+            batch.add(registrationServices.submitRegistration(registration(1), numSkier, course.getNumCourse()));
+        }
+        BookingTicket bad = registrationServices.submitRegistration(registration(1), MISSING_SKIER, course.getNumCourse());
+        queued.countDown();
+
+        assertEquals(BookingOutcome.ACCEPTED, first.getCompletion().get(10, TimeUnit.SECONDS).getOutcome());
+        for (BookingTicket ticket : batch) {
+            assertEquals(BookingOutcome.ACCEPTED, ticket.getCompletion().get(10, TimeUnit.SECONDS).getOutcome());
+            assertNotNull(ticket.getNumRegistration());
+        }
+        assertEquals(BookingOutcome.FAILED, bad.getCompletion().get(10, TimeUnit.SECONDS).getOutcome());
+        assertEquals(5, registrationRepository.countByCourseAndNumWeek(course, 1));
+        assertEquals(5, seatInventory.seatsTaken(course.getNumCourse(), 1));
+    }
+
+    /* a seat freed while the waiting skiers leave : an entry is either cancelled or promoted, never both */
+    @Test
+    void promotionRacingLeaveKeepsOneOutcome() throws Exception {
+        for (int week = 1; week <= 5; week++) {
+            Course course = course(1);
+            Long holder = skiers(1).get(0);
+            Registration held = registrationServices.addRegistrationAndAssignToSkierAndCourse(registration(week), holder, course.getNumCourse());
+            List<WaitlistPosition> entries = new ArrayList<>();
+            for (Long numSkier : skiers(THREADS - 1)) {
+                entries.add(registrationServices.joinWaitlist(numSkier, course.getNumCourse(), week));
+            }
+
+            List<Runnable> actions = new ArrayList<>();
+            actions.add(() -> registrationServices.removeRegistration(held.getNumRegistration()));
+            for (WaitlistPosition entry : entries) {
+                actions.add(() -> registrationServices.leaveWaitlist(entry.getNumEntry()));
+            }
+            concurrently(actions, action -> {
+                action.run();
+                return null;
+            });
+            awaitClosed(entries);
+
+            int registered = 0;
+            for (WaitlistPosition entry : entries) {
+                WaitlistEntry closed = waitlistRepository.findById(entry.getNumEntry()).orElse(null);
+                long registrations = registrationRepository.countDistinctByNumWeekAndSkier_NumSkierAndCourse_NumCourse(week, entry.getNumSkier(), course.getNumCourse());
+                if (closed.getStatus() == WaitlistStatus.CANCELLED) {
+                    assertEquals(0, registrations, "cancelled entry " + entry.getNumEntry() + " registered");
+                } else {
+                    assertEquals(WaitlistStatus.PROMOTED, closed.getStatus());
+                    assertEquals(1, registrations, "promoted entry " + entry.getNumEntry() + " not registered");
+                    registered++;
+                }
+            }
+            assertTrue(registered <= 1);
+            assertEquals(registered, registrationRepository.countByCourseAndNumWeek(course, week));
+            assertEquals(registered, seatInventory.seatsTaken(course.getNumCourse(), week));
+        }
+    }
+
+    /* every entry was left, the promotions still running can only roll back */
+    private void awaitClosed(List<WaitlistPosition> entries) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (entries.stream().anyMatch(e -> waitlistRepository.findById(e.getNumEntry())
+                .map(WaitlistEntry::getStatus).orElse(null) == WaitlistStatus.WAITING)) {
+            assertTrue(System.currentTimeMillis() < deadline, "waitlist entries still waiting");
+            Thread.sleep(50);
+        }
+    }
+
+    private static <T, R> List<R> concurrently(List<T> inputs, Task<T, R> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(inputs.size());
+        CyclicBarrier start = new CyclicBarrier(inputs.size());
+        try {
+            List<Future<R>> futures = new ArrayList<>();
+            for (T input : inputs) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call(input);
+                }));
+            }
+            List<R> results = new ArrayList<>();
+            for (Future<R> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Course course(int capacity) {
+        Course course = new Course();
+        course.setTypeCourse(TypeCourse.COLLECTIVE_ADULT);
+        course.setSupport(Support.SKI);
+        course.setPrice(100f);
+        course.setCapacity(capacity);
+        return courseRepository.save(course);
+    }
+
+    private List<Long> skiers(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Subscription subscription = new Subscription();
+            subscription.setTypeSub(TypeSubscription.MONTHLY);
+            subscription.setStartDate(LocalDate.now());
+            subscription.setPrice(80f);
+            Skier skier = new Skier();
+            skier.setFirstName("Skier" + i);
+            skier.setDateOfBirth(LocalDate.now().minusYears(20));
+            skier.setSubscription(subscription);
+            ids.add(skierServices.addSkier(skier).getNumSkier());
+        }
+        return ids;
+    }
+
+    private static Registration registration(int numWeek) {
+        Registration registration = new Registration();
+        registration.setNumWeek(numWeek);
+        return registration;
+    }
+
+    private interface Task<T, R> {
+        R call(T input) throws Exception;
+    }
+}
@@ -0,0 +1,112 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.spring.dto.CursorPage;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.services.ISkierServices;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/* Cursors made up or damaged by the client are answered with a 400, page sizes out of range are clamped.
+ * A database of its own, so that the pages hold the skiers seeded here only. */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:stationSkiCursors;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CursorPageTests {
+
+    private static final int SKIERS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ISkierServices skierServices;
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < SKIERS; i++) {
+            Subscription subscription = new Subscription();
+            subscription.setTypeSub(TypeSubscription.MONTHLY);
+            subscription.setStartDate(LocalDate.now());
+            subscription.setPrice(80f);
+            Skier skier = new Skier();
+            skier.setFirstName("Skier" + i);
+            skier.setDateOfBirth(LocalDate.now().minusYears(20));
+            skier.setSubscription(subscription);
+            skierServices.addSkier(skier);
+        }
+    }
+
+    @Test
+    void cursorsRoundTrip() {
+        assertEquals(0L, CursorPage.decode(null));
+        assertEquals(0L, CursorPage.decode(""));
+        assertEquals(42L, CursorPage.decode(CursorPage.encode(42)));
+        assertEquals(Long.MAX_VALUE, CursorPage.decode(CursorPage.encode(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        for (String cursor : Arrays.asList(CursorPage.encode(-1), "not a cursor", "@@@@", "YWJj", "MTI=x")) {
+            assertThrows(CursorPage.InvalidCursorException.class, () -> CursorPage.decode(cursor), cursor);
+        }
+    }
+
+    @Test
+    void sizesAreClamped() {
+        assertEquals(1, CursorPage.clampSize(0));
+        assertEquals(1, CursorPage.clampSize(-5));
+        assertEquals(50, CursorPage.clampSize(50));
+        assertEquals(CursorPage.MAX_SIZE, CursorPage.clampSize(Integer.MAX_VALUE));
+        assertEquals(2, CursorPage.limitOf(0).getPageSize());
+        assertEquals(CursorPage.MAX_SIZE + 1, CursorPage.limitOf(100000).getPageSize());
+
+        List<Long> rows = IntStream.rangeClosed(1, CursorPage.MAX_SIZE + 1).mapToObj(Long::valueOf).collect(Collectors.toList());
+        CursorPage<Long> page = CursorPage.of(rows, 100000, id -> id);
+        assertEquals(CursorPage.MAX_SIZE, page.getContent().size());
+        assertEquals((long) CursorPage.MAX_SIZE, CursorPage.decode(page.getNextCursor()));
+        assertNull(CursorPage.of(rows.subList(0, 1), 0, id -> id).getNextCursor());
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/skier/page").param("cursor", "not a cursor")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/skier/page").param("cursor", "YWJj")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/skier/page").param("cursor", CursorPage.encode(-1))).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void pageSizeIsClamped() throws Exception {
+        mockMvc.perform(get("/skier/page").param("size", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+        mockMvc.perform(get("/skier/page").param("size", "-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+        mockMvc.perform(get("/skier/page").param("size", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(SKIERS))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+}
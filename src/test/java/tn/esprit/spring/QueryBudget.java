@@ -0,0 +1,29 @@
+package tn.esprit.spring;
+
+import tn.esprit.spring.metrics.QueryCounter;
+
+/* Fails when an action runs more SQL statements than its budget, listing the statements it ran.
+ * Works for MockMvc requests as they run on the test thread. */
+public final class QueryBudget {
+
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private QueryBudget() {
+    }
+
+    public static void assertAtMost(int budget, Action action) throws Exception {
+        QueryCounter.record();
+        try {
+            action.run();
+            long count = QueryCounter.count();
+            if (count > budget) {
+                throw new AssertionError("Expected at most " + budget + " queries but " + count + " were run :\n"
+                        + String.join("\n", QueryCounter.statements()));
+            }
+        } finally {
+            QueryCounter.reset();
+        }
+    }
+}
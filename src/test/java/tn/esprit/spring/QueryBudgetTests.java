@@ -0,0 +1,161 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.spring.entities.*;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IExpiryCheckpointRepository;
+import tn.esprit.spring.repositories.IInstructorRepository;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+import tn.esprit.spring.services.ISkierServices;
+import tn.esprit.spring.services.ISubscriptionServices;
+import tn.esprit.spring.services.SubscriptionExpiryWheel;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/* Query budgets of the listing endpoints : the budgets do not depend on the number of rows,
+ * an N+1 regression goes far over them. The expiry poll is left to the tests. */
+@SpringBootTest(properties = "subscription.expiry.cron=-")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTests {
+
+    private static final int SKIERS = 30;
+    private static final int EXPIRING = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ISkierServices skierServices;
+    @Autowired
+    private ISubscriptionServices subscriptionServices;
+    @Autowired
+    private ICourseRepository courseRepository;
+    @Autowired
+    private IInstructorRepository instructorRepository;
+    @Autowired
+    private IRegistrationRepository registrationRepository;
+    @Autowired
+    private ISubscriptionRepository subscriptionRepository;
+    @Autowired
+    private IExpiryCheckpointRepository checkpointRepository;
+    @Autowired
+    private SubscriptionExpiryWheel expiryWheel;
+
+    @BeforeAll
+    void seed() {
+        List<Course> courses = IntStream.range(0, 3).mapToObj(i -> {
+            Course course = new Course();
+            course.setTypeCourse(TypeCourse.INDIVIDUAL);
+            course.setSupport(Support.SKI);
+            course.setPrice(100f);
+            return courseRepository.save(course);
+        }).collect(Collectors.toList());
+        for (Course course : courses) {
+            Instructor instructor = new Instructor();
+            instructor.setFirstName("Instructor");
+            instructor.setCourses(new HashSet<>(Collections.singletonList(course)));
+            instructorRepository.save(instructor);
+        }
+        for (int i = 0; i < SKIERS; i++) {
+            Subscription subscription = new Subscription();
+            subscription.setTypeSub(TypeSubscription.MONTHLY);
+            subscription.setStartDate(LocalDate.now());
+            subscription.setPrice(80f);
+            Skier skier = new Skier();
+            skier.setFirstName("Skier" + i);
+            skier.setDateOfBirth(LocalDate.now().minusYears(20));
+            skier.setSubscription(subscription);
+            skier.setNumSkier(skierServices.addSkier(skier).getNumSkier());
+            for (int week = 1; week <= 2; week++) {
+                Registration registration = new Registration();
+                registration.setNumWeek(week);
+                registration.setSkier(skier);
+                registration.setCourse(courses.get(i % courses.size()));
+                registrationRepository.save(registration);
+            }
+        }
+        for (int i = 0; i < EXPIRING; i++) {
+            Subscription subscription = new Subscription();
+            subscription.setTypeSub(TypeSubscription.values()[i % TypeSubscription.values().length]);
+            subscription.setStartDate(LocalDate.now().minusMonths(1));
+            subscription.setPrice(80f);
+            Skier skier = new Skier();
+            skier.setFirstName("Expiring" + i);
+            skier.setDateOfBirth(LocalDate.now().minusYears(20));
+            skier.setSubscription(subscription);
+            skierServices.addSkier(skier);
+            subscription.setEndDate(LocalDate.now());
+            subscriptionRepository.save(subscription);
+        }
+    }
+
+    @Test
+    void allSkiers() throws Exception {
+        QueryBudget.assertAtMost(2, () -> mockMvc.perform(get("/skier/all")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void skiersBySubscription() throws Exception {
+        QueryBudget.assertAtMost(2, () -> mockMvc.perform(get("/skier/getSkiersBySubscription")
+                .param("typeSubscription", "MONTHLY")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void skiersPage() throws Exception {
+        QueryBudget.assertAtMost(3, () -> mockMvc.perform(get("/skier/page").param("size", "20"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void allInstructors() throws Exception {
+        QueryBudget.assertAtMost(2, () -> mockMvc.perform(get("/instructor/all")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void catalogPolledWithItsETag() throws Exception {
+        String etag = mockMvc.perform(get("/piste/all")).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        QueryBudget.assertAtMost(0, () -> mockMvc.perform(get("/piste/all").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified()));
+    }
+
+    @Test
+    void subscriptionsByType() throws Exception {
+        QueryBudget.assertAtMost(1, () -> mockMvc.perform(get("/subscription/all/MONTHLY")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void retrieveSubscriptions() throws Exception {
+        QueryBudget.assertAtMost(3, () -> subscriptionServices.retrieveSubscriptions());
+    }
+
+    /* the skiers ending today are polled as due after a restart on the day before's checkpoint */
+    @Test
+    void retrieveSubscriptionsWithDueExpiries() throws Exception {
+        checkpointRepository.save(new ExpiryCheckpoint(ExpiryCheckpoint.ID, LocalDate.now().minusDays(1), LocalDateTime.now()));
+        expiryWheel.load();
+        int scheduled = expiryWheel.size();
+        QueryBudget.assertAtMost(5, () -> subscriptionServices.retrieveSubscriptions());
+        assertEquals(scheduled - EXPIRING, expiryWheel.size());
+    }
+}
@@ -0,0 +1,236 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.metrics.QueryCounter;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+import tn.esprit.spring.repositories.ISkierRepository;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* Query plans of the repository queries on a seeded embedded database : every statement a query runs
+ * is explained, and a table scan of a large table fails the test unless the query is listed in
+ * FULL_SCANS with the reason it reads the whole table. A new repository method has to be listed here. */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:queryPlans;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTests {
+
+    private static final int SKIERS = 50000;
+    private static final int COURSES = 60;
+    private static final int INSTRUCTORS = 20;
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private static final Set<String> LARGE_TABLES = new HashSet<>(Arrays.asList("REGISTRATION", "SKIER", "SUBSCRIPTION"));
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan");
+
+    private static final Map<String, String> FULL_SCANS = new HashMap<>();
+
+    static {
+        FULL_SCANS.put("IRegistrationRepository.countByCourseAndWeek", "rebuilds the occupancy counters at startup");
+        FULL_SCANS.put("IRegistrationRepository.streamAllForExport", "export of every registration");
+        FULL_SCANS.put("ISkierRepository.findAllWithRegistrations", "lists every skier");
+        FULL_SCANS.put("ISkierRepository.streamAllForExport", "export of every skier");
+        FULL_SCANS.put("ISkierRepository.streamNames", "rebuilds the skier search index");
+        FULL_SCANS.put("ISkierRepository.addExcursion", "insert, its guard is a primary key lookup");
+        FULL_SCANS.put("ISubscriptionRepository.activeRevenueByTypeSub", "the reconciliation sums every active subscription");
+    }
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ICourseRepository courseRepository;
+    @Autowired
+    private IRegistrationRepository registrationRepository;
+    @Autowired
+    private ISkierRepository skierRepository;
+    @Autowired
+    private ISubscriptionRepository subscriptionRepository;
+
+    private final Map<String, Runnable> queries = new LinkedHashMap<>();
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> courses = new ArrayList<>();
+        List<Object[]> instructorCourses = new ArrayList<>();
+        for (long numCourse = 1; numCourse <= COURSES; numCourse++) {
+            courses.add(new Object[]{numCourse, numCourse % 2 == 0 ? Support.SKI.name() : Support.SNOWBOARD.name()});
+            instructorCourses.add(new Object[]{1 + numCourse % INSTRUCTORS, numCourse});
+        }
+        List<Object[]> instructors = new ArrayList<>();
+        for (long numInstructor = 1; numInstructor <= INSTRUCTORS; numInstructor++) {
+            instructors.add(new Object[]{numInstructor, "Instructor" + numInstructor});
+        }
+        List<Object[]> subscriptions = new ArrayList<>();
+        List<Object[]> skiers = new ArrayList<>();
+        List<Object[]> registrations = new ArrayList<>();
+        for (long i = 1; i <= SKIERS; i++) {
+            LocalDate startDate = TODAY.minusDays(i % 400);
+            subscriptions.add(new Object[]{i, Date.valueOf(startDate), Date.valueOf(startDate.plusMonths(1 + i % 12)),
+                    80f, (int) (i % TypeSubscription.values().length)});
+            skiers.add(new Object[]{i, "Skier" + i, "Name" + i, Date.valueOf(TODAY.minusYears(10 + i % 50)), "City" + i % 30, i});
+            for (int week = 1; week <= 2; week++) {
+                registrations.add(new Object[]{2 * i + week, (int) (week + i % 50), i, 1 + i % COURSES});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into course (num_course, level, type_course, support, price, time_slot, capacity) " +
+                "values (?, 1, 'COLLECTIVE_ADULT', ?, 100, 1, 6)", courses);
+        jdbcTemplate.batchUpdate("insert into instructor (num_instructor, first_name) values (?, ?)", instructors);
+        jdbcTemplate.batchUpdate("insert into instructor_courses (instructor_num_instructor, courses_num_course) values (?, ?)",
+                instructorCourses);
+        jdbcTemplate.batchUpdate("insert into subscription (num_sub, start_date, end_date, price, type_sub) " +
+                "values (?, ?, ?, ?, ?)", subscriptions);
+        jdbcTemplate.batchUpdate("insert into skier (num_skier, first_name, last_name, date_of_birth, city, subscription_num_sub) " +
+                "values (?, ?, ?, ?, ?, ?)", skiers);
+        jdbcTemplate.batchUpdate("insert into registration (num_registration, num_week, skier_num_skier, course_num_course) " +
+                "values (?, ?, ?, ?)", registrations);
+        jdbcTemplate.execute("analyze");
+
+        Course course = courseRepository.findById(1L).orElseThrow(IllegalStateException::new);
+        Subscription subscription = subscriptionRepository.findById(1L).orElseThrow(IllegalStateException::new);
+        PageRequest page = PageRequest.of(0, 20);
+        Long last = SKIERS - 20L;
+
+        queries.put("IRegistrationRepository.countByCourseAndNumWeek",
+                () -> registrationRepository.countByCourseAndNumWeek(course, 1));
+        queries.put("IRegistrationRepository.numWeeksCourseOfInstructorBySupport",
+                () -> registrationRepository.numWeeksCourseOfInstructorBySupport(1L, Support.SKI));
+        queries.put("IRegistrationRepository.countDistinctByNumWeekAndSkier_NumSkierAndCourse_NumCourse",
+                () -> registrationRepository.countDistinctByNumWeekAndSkier_NumSkierAndCourse_NumCourse(2, 1L, 2L));
+
+        queries.put("ISkierRepository.findBySubscription_TypeSub",
+                () -> skierRepository.findBySubscription_TypeSub(TypeSubscription.MONTHLY));
+        queries.put("ISkierRepository.findBySubscription", () -> skierRepository.findBySubscription(subscription));
+        queries.put("ISkierRepository.findByNumSkierGreaterThanOrderByNumSkierAsc",
+                () -> skierRepository.findByNumSkierGreaterThanOrderByNumSkierAsc(last, page));
+        queries.put("ISkierRepository.findBySubscription_TypeSubAndNumSkierGreaterThanOrderByNumSkierAsc",
+                () -> skierRepository.findBySubscription_TypeSubAndNumSkierGreaterThanOrderByNumSkierAsc(TypeSubscription.MONTHLY, last, page));
+        queries.put("ISkierRepository.findWithRegistrationsById", () -> skierRepository.findWithRegistrationsById(1L));
+        queries.put("ISkierRepository.findWithRegistrationsBySubscriptionType",
+                () -> skierRepository.findWithRegistrationsBySubscriptionType(TypeSubscription.MONTHLY));
+        queries.put("ISkierRepository.findBirthDatesByIds", () -> skierRepository.findBirthDatesByIds(Arrays.asList(1L, 2L, 3L)));
+        queries.put("ISkierRepository.findNamesBySubscriptionIds",
+                () -> skierRepository.findNamesBySubscriptionIds(Arrays.asList(1L, 2L, 3L)));
+
+        queries.put("ISubscriptionRepository.findByTypeSubOrderByStartDateAsc",
+                () -> subscriptionRepository.findByTypeSubOrderByStartDateAsc(TypeSubscription.MONTHLY));
+        queries.put("ISubscriptionRepository.getSubscriptionsByStartDateBetween",
+                () -> subscriptionRepository.getSubscriptionsByStartDateBetween(TODAY.minusDays(7), TODAY));
+        queries.put("ISubscriptionRepository.findByNumSubGreaterThanOrderByNumSubAsc",
+                () -> subscriptionRepository.findByNumSubGreaterThanOrderByNumSubAsc(last, page));
+        queries.put("ISubscriptionRepository.findByTypeSubAndNumSubGreaterThanOrderByNumSubAsc",
+                () -> subscriptionRepository.findByTypeSubAndNumSubGreaterThanOrderByNumSubAsc(TypeSubscription.MONTHLY, last, page));
+        queries.put("ISubscriptionRepository.findDistinctOrderByEndDateAsc",
+                () -> subscriptionRepository.findDistinctOrderByEndDateAsc());
+        queries.put("ISubscriptionRepository.findExpiryScheduleAfter",
+                () -> subscriptionRepository.findExpiryScheduleAfter(TODAY.plusMonths(11)));
+        queries.put("ISubscriptionRepository.findExpiryScheduleBetween",
+                () -> subscriptionRepository.findExpiryScheduleBetween(TODAY, TODAY.plusDays(1)));
+        queries.put("ISubscriptionRepository.findRevenueByIds",
+                () -> subscriptionRepository.findRevenueByIds(Arrays.asList(1L, 2L, 3L)));
+        queries.put("ISubscriptionRepository.recurringRevenueByTypeSubEquals",
+                () -> subscriptionRepository.recurringRevenueByTypeSubEquals(TypeSubscription.MONTHLY));
+        queries.put("ISubscriptionRepository.findRenewalRange",
+                () -> subscriptionRepository.findRenewalRange(TODAY, TODAY.plusDays(7)));
+        queries.put("ISubscriptionRepository.findDueForRenewal",
+                () -> subscriptionRepository.findDueForRenewal(0L, 1000L, TODAY, TODAY.plusDays(7), page));
+    }
+
+    @Test
+    void everyRepositoryQueryIsChecked() {
+        List<String> unchecked = Stream.of(IRegistrationRepository.class, ISkierRepository.class, ISubscriptionRepository.class)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .filter(method -> !method.isSynthetic())
+                        .map(method -> repository.getSimpleName() + "." + method.getName()))
+                .filter(query -> !queries.containsKey(query) && !FULL_SCANS.containsKey(query))
+                .distinct()
+                .collect(Collectors.toList());
+        assertTrue(unchecked.isEmpty(), "Repository queries without a plan check : " + unchecked);
+    }
+
+    @Test
+    void queriesReadLargeTablesThroughIndexes() throws SQLException {
+        List<String> scans = new ArrayList<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            for (String sql : statementsOf(transaction, query.getValue())) {
+                String plan = explain(sql);
+                Matcher scan = TABLE_SCAN.matcher(plan);
+                while (scan.find()) {
+                    if (LARGE_TABLES.contains(scan.group(1))) {
+                        scans.add(query.getKey() + " scans " + scan.group(1) + " :\n" + plan);
+                    }
+                }
+            }
+        }
+        assertTrue(scans.isEmpty(), "Full scans on " + SKIERS + " skiers :\n" + String.join("\n\n", scans));
+    }
+
+    private Set<String> statementsOf(TransactionTemplate transaction, Runnable query) {
+        QueryCounter.record();
+        try {
+            transaction.executeWithoutResult(status -> query.run());
+            Set<String> selects = QueryCounter.statements().stream()
+                    .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            assertFalse(selects.isEmpty(), "No statement recorded");
+            return selects;
+        } finally {
+            QueryCounter.reset();
+        }
+    }
+
+    /* the plan is made when the statement is prepared, the parameters are only bound to run it */
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                return plan.next() ? plan.getString(1) : "";
+            }
+        }
+    }
+}
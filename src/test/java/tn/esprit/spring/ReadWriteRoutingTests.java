@@ -0,0 +1,71 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.configs.ReplicaLagMonitor;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/* Two embedded databases, the second one standing for the replica : the database answering
+ * "select database()" tells where the connection of a transaction was routed */
+@SpringBootTest(properties = {
+        "spring.datasource.replica.jdbc-url=jdbc:h2:mem:stationSkiReplica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.replica.username=sa",
+        "spring.datasource.replica.lag-query=select 0",
+        "spring.datasource.replica.lag-check-ms=3600000"})
+@ActiveProfiles("h2")
+class ReadWriteRoutingTests {
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @AfterEach
+    void caughtUp() {
+        lagMonitor.check();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        lagMonitor.check();
+        assertEquals("STATIONSKIREPLICA", databaseOf(true));
+    }
+
+    @Test
+    void writeTransactionsStayOnThePrimary() {
+        lagMonitor.check();
+        assertEquals("STATIONSKI", databaseOf(false));
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags() {
+        lagMonitor.record(60);
+        assertEquals("STATIONSKI", databaseOf(true));
+        lagMonitor.record(0);
+        assertEquals("STATIONSKIREPLICA", databaseOf(true));
+    }
+
+    @Test
+    void readsStayOnThePrimaryWhenTheReplicaIsUnreachable() {
+        lagMonitor.record(ReplicaLagMonitor.UNREACHABLE);
+        assertEquals("STATIONSKI", databaseOf(true));
+    }
+
+    private String databaseOf(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select database()", String.class).toUpperCase());
+    }
+}
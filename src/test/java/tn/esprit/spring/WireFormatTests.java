@@ -0,0 +1,188 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.spring.dto.RegistrationDTO;
+import tn.esprit.spring.dto.SkierDTO;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.wire.BinaryHttpMessageConverter;
+import tn.esprit.spring.wire.WireCodec;
+import tn.esprit.spring.wire.WireCodecs;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/* Round trips of the binary wire format, and malformed messages, which must be answered with a 400 */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class WireFormatTests {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void nullFieldsRoundTrip() {
+        Skier skier = roundTrip(new Skier(), WireCodecs.SKIER);
+        assertNull(skier.getNumSkier());
+        assertNull(skier.getFirstName());
+        assertNull(skier.getLastName());
+        assertNull(skier.getDateOfBirth());
+        assertNull(skier.getCity());
+        assertNull(skier.getSubscription());
+
+        SkierDTO dto = roundTrip(new SkierDTO(), WireCodecs.SKIER_DTO);
+        assertNull(dto.getSubscription());
+        assertNull(dto.getRegistrations());
+
+        Subscription subscription = roundTrip(new Subscription(), WireCodecs.SUBSCRIPTION);
+        assertNull(subscription.getNumSub());
+        assertNull(subscription.getStartDate());
+        assertNull(subscription.getEndDate());
+        assertNull(subscription.getPrice());
+        assertNull(subscription.getTypeSub());
+    }
+
+    @Test
+    void nonAsciiStringsRoundTrip() {
+        Skier skier = skier("Zoë", "Müller-Ångström", "قابس ⛷ 🎿");
+        Skier decoded = roundTrip(skier, WireCodecs.SKIER);
+        assertSkier(skier, decoded);
+    }
+
+    /* the record no longer fits a one byte length prefix and is moved by writeRecord */
+    @Test
+    void largeRecordsRoundTrip() {
+        String city = IntStream.range(0, 300).mapToObj(i -> i % 2 == 0 ? "a" : "é").collect(Collectors.joining());
+        Skier skier = skier("Alexandre", "de La Rochefoucauld", city);
+        assertSkier(skier, roundTrip(skier, WireCodecs.SKIER));
+
+        SkierDTO dto = new SkierDTO(7L, "Ines", "Ben Salah", LocalDate.of(1990, 1, 31), "Tunis", subscription(),
+                IntStream.range(0, 100).mapToObj(i -> new RegistrationDTO((long) i * 1000, i - 50)).collect(Collectors.toList()));
+        SkierDTO decoded = roundTrip(dto, WireCodecs.SKIER_DTO);
+        assertEquals(dto.getCity(), decoded.getCity());
+        assertSubscription(dto.getSubscription(), decoded.getSubscription());
+        assertEquals(dto.getRegistrations().size(), decoded.getRegistrations().size());
+        for (int i = 0; i < dto.getRegistrations().size(); i++) {
+            assertEquals(dto.getRegistrations().get(i).getNumRegistration(), decoded.getRegistrations().get(i).getNumRegistration());
+            assertEquals(dto.getRegistrations().get(i).getNumWeek(), decoded.getRegistrations().get(i).getNumWeek());
+        }
+
+        List<Skier> skiers = Arrays.asList(skier, skier("Zoë", "Martin", "Ain Draham"), new Skier());
+        List<Skier> decodedSkiers = WireCodecs.decode(WireCodecs.encode(skiers).toByteArray(), WireCodecs.SKIER);
+        assertEquals(3, decodedSkiers.size());
+        assertSkier(skiers.get(0), decodedSkiers.get(0));
+        assertSkier(skiers.get(1), decodedSkiers.get(1));
+        assertNull(decodedSkiers.get(2).getFirstName());
+    }
+
+    @Test
+    void truncatedMessagesAreRejected() {
+        Skier skier = skier("Zoë", "Martin", IntStream.range(0, 200).mapToObj(i -> "x").collect(Collectors.joining()));
+        byte[] message = WireCodecs.encode(skier).toByteArray();
+        for (int length = 0; length < message.length; length++) {
+            byte[] truncated = Arrays.copyOf(message, length);
+            assertThrows(IllegalArgumentException.class, () -> WireCodecs.decode(truncated, WireCodecs.SKIER),
+                    "truncated to " + length + " bytes");
+        }
+    }
+
+    @Test
+    void malformedMessagesAreRejected() {
+        byte[] valid = WireCodecs.encode(skier("Zoë", "Martin", "Tunis")).toByteArray();
+
+        byte[] version = valid.clone();
+        version[0] = 2;
+        assertMalformed(version);
+
+        byte[] trailing = Arrays.copyOf(valid, valid.length + 1);
+        assertMalformed(trailing);
+
+        /* version, one record of 11 bytes : every field present, then a varint that never ends */
+        assertMalformed(new byte[]{1, 1, 11, 0x3F, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1});
+        /* a record length far past the end of the message */
+        assertMalformed(new byte[]{1, 1, -1, -1, -1, -1, 0x0F});
+        /* a date out of the LocalDate range */
+        assertMalformed(new byte[]{1, 1, 11, 0x08, -2, -1, -1, -1, -1, -1, -1, -1, -1, 0x01});
+        /* a subscription record of an unknown type */
+        assertMalformed(new byte[]{1, 1, 4, 0x20, 2, 0x10, 0x7F});
+    }
+
+    @Test
+    void malformedBodyIsBadRequest() throws Exception {
+        byte[] valid = WireCodecs.encode(skier("Zoë", "Martin", "Tunis")).toByteArray();
+
+        mockMvc.perform(post("/skier/add").contentType(BinaryHttpMessageConverter.MEDIA_TYPE)
+                        .content(Arrays.copyOf(valid, valid.length - 3)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/skier/add").contentType(BinaryHttpMessageConverter.MEDIA_TYPE)
+                        .content(new byte[]{1, 1, 11, 0x08, -2, -1, -1, -1, -1, -1, -1, -1, -1, 0x01}))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/skier/add").contentType(BinaryHttpMessageConverter.MEDIA_TYPE)
+                        .content(WireCodecs.encode(Collections.nCopies(2, new Skier())).toByteArray()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static <T> T roundTrip(T value, WireCodec<T> codec) {
+        List<T> values = WireCodecs.decode(WireCodecs.encode(value).toByteArray(), codec);
+        assertEquals(1, values.size());
+        return values.get(0);
+    }
+
+    private static void assertMalformed(byte[] message) {
+        assertThrows(IllegalArgumentException.class, () -> WireCodecs.decode(message, WireCodecs.SKIER),
+                () -> "decoded " + Arrays.toString(message));
+        assertThrows(IllegalArgumentException.class, () -> WireCodecs.decode(message, WireCodecs.SKIER_DTO),
+                () -> "decoded " + Arrays.toString(message));
+    }
+
+    private static Skier skier(String firstName, String lastName, String city) {
+        Skier skier = new Skier();
+        skier.setNumSkier(42L);
+        skier.setFirstName(firstName);
+        skier.setLastName(lastName);
+        skier.setDateOfBirth(LocalDate.of(1985, 12, 24));
+        skier.setCity(city);
+        skier.setSubscription(subscription());
+        return skier;
+    }
+
+    private static Subscription subscription() {
+        return new Subscription(300L, LocalDate.of(2026, 12, 1), LocalDate.of(2027, 3, 31), 1250.5f, TypeSubscription.SEMESTRIEL);
+    }
+
+    private static void assertSkier(Skier expected, Skier actual) {
+        assertEquals(expected.getNumSkier(), actual.getNumSkier());
+        assertEquals(expected.getFirstName(), actual.getFirstName());
+        assertEquals(expected.getLastName(), actual.getLastName());
+        assertEquals(expected.getDateOfBirth(), actual.getDateOfBirth());
+        assertEquals(expected.getCity(), actual.getCity());
+        assertSubscription(expected.getSubscription(), actual.getSubscription());
+    }
+
+    private static void assertSubscription(Subscription expected, Subscription actual) {
+        assertTrue(expected != null && actual != null);
+        assertEquals(expected.getNumSub(), actual.getNumSub());
+        assertEquals(expected.getStartDate(), actual.getStartDate());
+        assertEquals(expected.getEndDate(), actual.getEndDate());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getTypeSub(), actual.getTypeSub());
+    }
+}